@@ -0,0 +1,328 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import geometries.Intersectable.HitRecord;
+import primitives.Double3;
+import primitives.Ray;
+import primitives.Util;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Compiled bounding volume hierarchy, flattened into arrays for cache friendly traversal.
+ * Nodes are stored depth first, so the left child of a node directly follows it.
+ * For every node, {@link #bounds} holds 6 numbers (low x,y,z then high x,y,z) and {@link #nodes}
+ * holds 2 numbers: for a leaf the first item and the amount of items, for an inner node the index
+ * of the right child and 0.
+ * The items are whatever the tree was built over, numbered in leaf order; subclasses test a ray against them.
+ */
+abstract class BVH {
+    private final double[] bounds;
+    private final int[] nodes;
+
+    //stack of nodes waiting to be visited, one per thread, deep enough for the whole tree
+    private final ThreadLocal<int[]> stacks;
+
+    /**
+     * compile a built tree
+     * @param root root of the tree
+     */
+    BVH(BVHBuilder.Node root)
+    {
+        int count=countNodes(root);
+        this.bounds=new double[6*count];
+        this.nodes=new int[2*count];
+
+        this.flatten(root, 0);
+
+        int depth=depth(root);
+        this.stacks=ThreadLocal.withInitial(() -> new int[depth+1]);
+    }
+
+    /**
+     * find the intersections of a ray with an item
+     * @param item index of the item in leaf order
+     * @param ray the ray
+     * @param maxDistance upper bound of distance from ray head to intersection points
+     * @return list of intersections, null if there are none
+     */
+    abstract List<GeoPoint> findItemIntersections(int item, Ray ray, double maxDistance);
+
+    /**
+     * find the hit of a ray with an item, if closer than the one in the record
+     * @param item index of the item in leaf order
+     * @param ray the ray
+     * @param hit record of the closest hit so far, updated if a closer one is found
+     * @return true if a closer hit was found
+     */
+    abstract boolean findItemClosestHit(int item, Ray ray, HitRecord hit);
+
+    /**
+     * find how much light passes along a ray through an item
+     * @param item index of the item in leaf order
+     * @param ray the ray
+     * @param maxDistance upper bound of distance from ray head to intersection points
+     * @return transparency coefficient, Double3.ONE if the item is not hit
+     */
+    abstract Double3 findItemTransparency(int item, Ray ray, double maxDistance);
+
+    /**
+     * count the nodes of a tree
+     * @param node root of the tree
+     * @return amount of nodes
+     */
+    private static int countNodes(BVHBuilder.Node node)
+    {
+        return node.left==null ? 1 : 1+countNodes(node.left)+countNodes(node.right);
+    }
+
+    /**
+     * depth of a tree
+     * @param node root of the tree
+     * @return amount of levels below the root
+     */
+    private static int depth(BVHBuilder.Node node)
+    {
+        return node.left==null ? 0 : 1+Math.max(depth(node.left), depth(node.right));
+    }
+
+    /**
+     * write a node and its subtree into the arrays, depth first
+     * @param node the node
+     * @param index index to write the node at
+     * @return index after the subtree
+     */
+    private int flatten(BVHBuilder.Node node, int index)
+    {
+        for (int axis=0; axis<3; ++axis)
+        {
+            this.bounds[6*index+axis]=node.low[axis];
+            this.bounds[6*index+3+axis]=node.high[axis];
+        }
+
+        if (node.left==null)
+        {
+            this.nodes[2*index]=node.first;
+            this.nodes[2*index+1]=node.count;
+            return index+1;
+        }
+
+        int right=this.flatten(node.left, index+1);
+        this.nodes[2*index]=right;
+        this.nodes[2*index+1]=0;
+        return this.flatten(node.right, right);
+    }
+
+    /**
+     * find the intersections of a ray with the items of the hierarchy
+     * @param ray the ray
+     * @param maxDistance upper bound of distance from ray head to intersection points
+     * @return list of intersections, null if there are none
+     */
+    List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance)
+    {
+        double p0x=ray.getP0().getX(), p0y=ray.getP0().getY(), p0z=ray.getP0().getZ();
+        double invX=1/ray.getDir().getX(), invY=1/ray.getDir().getY(), invZ=1/ray.getDir().getZ();
+
+        List<GeoPoint> res=null, cur;
+        int[] stack=this.stacks.get();
+        int top=0;
+        int node=0;
+
+        while (true)
+        {
+            if (this.intersectNode(node, p0x, p0y, p0z, invX, invY, invZ, maxDistance))
+            {
+                int count=this.nodes[2*node+1];
+                if (count==0)
+                {
+                    //visit the left child now and the right one later
+                    stack[top++]=this.nodes[2*node];
+                    ++node;
+                    continue;
+                }
+
+                int first=this.nodes[2*node];
+                for (int i=first; i<first+count; ++i)
+                {
+                    cur=this.findItemIntersections(i, ray, maxDistance);
+                    if (cur!=null)
+                    {
+                        if (res==null)
+                        {
+                            res=new LinkedList<>(cur);
+                        }
+                        else
+                        {
+                            res.addAll(cur);
+                        }
+                    }
+                }
+            }
+
+            if (top==0)
+                return res;
+            node=stack[--top];
+        }
+    }
+
+    /**
+     * find the closest hit of a ray with the items of the hierarchy.
+     * The nearer child of every node is visited first, and nodes beyond the closest
+     * hit found so far are skipped
+     * @param ray the ray
+     * @param hit record of the closest hit so far, updated if a closer one is found
+     * @return true if a closer hit was found
+     */
+    boolean findClosestHit(Ray ray, HitRecord hit)
+    {
+        double p0x=ray.getP0().getX(), p0y=ray.getP0().getY(), p0z=ray.getP0().getZ();
+        double invX=1/ray.getDir().getX(), invY=1/ray.getDir().getY(), invZ=1/ray.getDir().getZ();
+
+        boolean found=false;
+        int[] stack=this.stacks.get();
+        int top=0;
+        int node=0;
+
+        if (this.enterNode(node, p0x, p0y, p0z, invX, invY, invZ, hit.t)==Double.POSITIVE_INFINITY)
+            return false;
+
+        while (true)
+        {
+            int count=this.nodes[2*node+1];
+            if (count==0)
+            {
+                int left=node+1, right=this.nodes[2*node];
+                double tLeft=this.enterNode(left, p0x, p0y, p0z, invX, invY, invZ, hit.t),
+                       tRight=this.enterNode(right, p0x, p0y, p0z, invX, invY, invZ, hit.t);
+                if (tLeft!=Double.POSITIVE_INFINITY && tRight!=Double.POSITIVE_INFINITY)
+                {
+                    //go to the nearer child, the farther one might be skipped by then
+                    node=tLeft<=tRight ? left : right;
+                    stack[top++]=tLeft<=tRight ? right : left;
+                    continue;
+                }
+                if (tLeft!=Double.POSITIVE_INFINITY||tRight!=Double.POSITIVE_INFINITY)
+                {
+                    node=tLeft!=Double.POSITIVE_INFINITY ? left : right;
+                    continue;
+                }
+            }
+            else
+            {
+                int first=this.nodes[2*node];
+                for (int i=first; i<first+count; ++i)
+                {
+                    if (this.findItemClosestHit(i, ray, hit))
+                        found=true;
+                }
+            }
+
+            //take the next waiting node that is still not beyond the closest hit
+            do
+            {
+                if (top==0)
+                    return found;
+                node=stack[--top];
+            } while (this.enterNode(node, p0x, p0y, p0z, invX, invY, invZ, hit.t)==Double.POSITIVE_INFINITY);
+        }
+    }
+
+    /**
+     * find how much light passes along a ray through the items of the hierarchy,
+     * stopping as soon as the ray is fully blocked
+     * @param ray the ray
+     * @param maxDistance upper bound of distance from ray head to intersection points
+     * @return accumulated transparency coefficient, Double3.ZERO if the ray is blocked
+     */
+    Double3 findTransparency(Ray ray, double maxDistance)
+    {
+        double p0x=ray.getP0().getX(), p0y=ray.getP0().getY(), p0z=ray.getP0().getZ();
+        double invX=1/ray.getDir().getX(), invY=1/ray.getDir().getY(), invZ=1/ray.getDir().getZ();
+
+        Double3 ktr=Double3.ONE;
+        int[] stack=this.stacks.get();
+        int top=0;
+        int node=0;
+
+        while (true)
+        {
+            if (this.intersectNode(node, p0x, p0y, p0z, invX, invY, invZ, maxDistance))
+            {
+                int count=this.nodes[2*node+1];
+                if (count==0)
+                {
+                    stack[top++]=this.nodes[2*node];
+                    ++node;
+                    continue;
+                }
+
+                int first=this.nodes[2*node];
+                for (int i=first; i<first+count; ++i)
+                {
+                    Double3 kt=this.findItemTransparency(i, ray, maxDistance);
+                    if (kt==Double3.ONE)
+                        continue;
+                    ktr=ktr.product(kt);
+                    if (ktr.equals(Double3.ZERO))
+                        return Double3.ZERO;
+                }
+            }
+
+            if (top==0)
+                return ktr;
+            node=stack[--top];
+        }
+    }
+
+    /**
+     * test a ray against the box of a node (slab test)
+     * @param node index of the node
+     * @param p0x ray head x
+     * @param p0y ray head y
+     * @param p0z ray head z
+     * @param invX inverse of the ray direction x
+     * @param invY inverse of the ray direction y
+     * @param invZ inverse of the ray direction z
+     * @param maxDistance the box is missed if the ray enters it only beyond this distance
+     * @return whether the ray passes through the box
+     */
+    private boolean intersectNode(int node, double p0x, double p0y, double p0z,
+                                  double invX, double invY, double invZ, double maxDistance)
+    {
+        return this.enterNode(node, p0x, p0y, p0z, invX, invY, invZ, maxDistance)!=Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * find where a ray enters the box of a node (slab test)
+     * @param node index of the node
+     * @param p0x ray head x
+     * @param p0y ray head y
+     * @param p0z ray head z
+     * @param invX inverse of the ray direction x
+     * @param invY inverse of the ray direction y
+     * @param invZ inverse of the ray direction z
+     * @param maxDistance the box is missed if the ray enters it only beyond this distance
+     * @return distance to the box, 0 if the ray starts inside it, positive infinity if the box is missed
+     */
+    private double enterNode(int node, double p0x, double p0y, double p0z,
+                             double invX, double invY, double invZ, double maxDistance)
+    {
+        int b=6*node;
+        double  t1x=(this.bounds[b]-p0x)*invX,
+                t1y=(this.bounds[b+1]-p0y)*invY,
+                t1z=(this.bounds[b+2]-p0z)*invZ,
+                t2x=(this.bounds[b+3]-p0x)*invX,
+                t2y=(this.bounds[b+4]-p0y)*invY,
+                t2z=(this.bounds[b+5]-p0z)*invZ;
+
+        double tNear=Math.max(Math.min(t1x, t2x), Math.max(Math.min(t1y, t2y), Math.min(t1z, t2z)));
+        double tFar=Math.min(Math.max(t1x, t2x), Math.min(Math.max(t1y, t2y), Math.max(t1z, t2z)));
+
+        if (Util.isPositive(tNear-tFar)||Util.isNegative(tFar)||Util.isPositive(tNear-maxDistance))
+            return Double.POSITIVE_INFINITY;
+        //undefined distances (ray along a box face) are kept as a hit, like a start inside the box
+        return tNear>0 ? tNear : 0;
+    }
+}
@@ -0,0 +1,467 @@
+package geometries;
+
+import java.util.Arrays;
+
+/**
+ * Builds a bounding volume hierarchy over a set of bounded boxes.
+ * The builder only knows the boxes (6 numbers per shape: low x,y,z then high x,y,z),
+ * so it can be used for any kind of shapes. The result is a tree of nodes, where each leaf
+ * refers to a range of the {@link #order} permutation of the shapes.
+ */
+class BVHBuilder {
+    //relative cost of testing a ray against a box and against a shape, for the surface area heuristic
+    private static final double TRAVERSAL_COST = 1;
+    private static final double INTERSECTION_COST = 1;
+
+    //amount of bins per axis for the binned surface area heuristic
+    private static final int BINS = 16;
+
+    //maximum amount of shapes in a leaf
+    static final int MAX_LEAF_SIZE = 4;
+
+    //ranges this short are sorted by insertion
+    private static final int INSERTION_SORT = 16;
+
+    /**
+     * node of the built tree
+     */
+    static class Node {
+        final double[] low = new double[3], high = new double[3];
+        //children, null for a leaf
+        Node left, right;
+        //range of the order permutation held by a leaf
+        int first, count;
+    }
+
+    private final double[] boxes;
+    private final double[] centers;
+    private final BVHQuality quality;
+
+    /**
+     * permutation of the shapes, leaves hold consecutive ranges of it
+     */
+    final int[] order;
+
+    /**
+     * init a builder
+     * @param boxes bounded boxes of the shapes, 6 numbers per shape
+     * @param count amount of shapes
+     * @param quality how to choose the splits
+     */
+    BVHBuilder(double[] boxes, int count, BVHQuality quality)
+    {
+        this.boxes=boxes;
+        this.quality=quality;
+        this.order=new int[count];
+        this.centers=new double[3*count];
+        for (int i=0; i<count; ++i)
+        {
+            this.order[i]=i;
+            for (int axis=0; axis<3; ++axis)
+                this.centers[3*i+axis]=(boxes[6*i+axis]+boxes[6*i+3+axis])/2;
+        }
+    }
+
+    /**
+     * build the hierarchy
+     * @return the root node, null if there are no shapes
+     */
+    Node build()
+    {
+        return this.order.length==0 ? null : this.buildNode(0, this.order.length);
+    }
+
+    /**
+     * recursively build a node over a range of the shapes
+     * @param first start of the range in the order permutation
+     * @param count size of the range
+     * @return the node
+     */
+    private Node buildNode(int first, int count)
+    {
+        Node node=new Node();
+        this.fillBounds(node, first, count);
+
+        if (count<=1)
+            return this.makeLeaf(node, first, count);
+
+        //bounds of the centers, splitting along an axis where they are all equal is pointless
+        double[] low=new double[3], high=new double[3];
+        this.centerBounds(first, count, low, high);
+
+        int split;
+        if (this.quality==BVHQuality.MEDIAN)
+        {
+            if (count<=MAX_LEAF_SIZE)
+                return this.makeLeaf(node, first, count);
+            split=this.medianSplit(first, count, low, high);
+        }
+        else
+        {
+            split=this.quality==BVHQuality.FULL_SAH
+                    ? this.sweepSplit(node, first, count)
+                    : this.binnedSplit(node, first, count, low, high);
+            //no split is cheaper than testing all the shapes
+            if (split<0 && count<=MAX_LEAF_SIZE)
+                return this.makeLeaf(node, first, count);
+            if (split<0)
+                split=this.medianSplit(first, count, low, high);
+        }
+
+        node.left=this.buildNode(first, split);
+        node.right=this.buildNode(first+split, count-split);
+        return node;
+    }
+
+    /**
+     * turn a node into a leaf
+     * @param node the node
+     * @param first start of the range
+     * @param count size of the range
+     * @return the node
+     */
+    private Node makeLeaf(Node node, int first, int count)
+    {
+        node.first=first;
+        node.count=count;
+        return node;
+    }
+
+    /**
+     * set the bounds of a node to contain all the boxes of a range
+     * @param node the node
+     * @param first start of the range
+     * @param count size of the range
+     */
+    private void fillBounds(Node node, int first, int count)
+    {
+        Arrays.fill(node.low, Double.POSITIVE_INFINITY);
+        Arrays.fill(node.high, Double.NEGATIVE_INFINITY);
+        for (int i=first; i<first+count; ++i)
+        {
+            int box=6*this.order[i];
+            for (int axis=0; axis<3; ++axis)
+            {
+                node.low[axis]=Math.min(node.low[axis], this.boxes[box+axis]);
+                node.high[axis]=Math.max(node.high[axis], this.boxes[box+3+axis]);
+            }
+        }
+    }
+
+    /**
+     * get the bounds of the centers of the boxes in a range
+     * @param first start of the range
+     * @param count size of the range
+     * @param low filled with the lowest center coordinates
+     * @param high filled with the highest center coordinates
+     */
+    private void centerBounds(int first, int count, double[] low, double[] high)
+    {
+        Arrays.fill(low, Double.POSITIVE_INFINITY);
+        Arrays.fill(high, Double.NEGATIVE_INFINITY);
+        for (int i=first; i<first+count; ++i)
+        {
+            for (int axis=0; axis<3; ++axis)
+            {
+                low[axis]=Math.min(low[axis], this.centers[3*this.order[i]+axis]);
+                high[axis]=Math.max(high[axis], this.centers[3*this.order[i]+axis]);
+            }
+        }
+    }
+
+    /**
+     * split a range in the median of the longest axis of the centers
+     * @return size of the left part
+     */
+    private int medianSplit(int first, int count, double[] low, double[] high)
+    {
+        int axis=0;
+        for (int i=1; i<3; ++i)
+        {
+            if (high[i]-low[i]>high[axis]-low[axis])
+                axis=i;
+        }
+        this.sort(first, count, axis);
+        return count/2;
+    }
+
+    /**
+     * choose a split by the surface area heuristic, evaluating every split between the shapes
+     * sorted along each axis
+     * @param node node being split (bounds already filled)
+     * @return size of the left part, or -1 if no split is cheaper than a leaf
+     */
+    private int sweepSplit(Node node, int first, int count)
+    {
+        double bestCost=count*INTERSECTION_COST;
+        int bestAxis=-1, bestSplit=-1;
+        double parentArea=area(node.low, node.high);
+        double[] rightAreas=new double[count];
+        double[] low=new double[3], high=new double[3];
+
+        for (int axis=0; axis<3; ++axis)
+        {
+            this.sort(first, count, axis);
+
+            //areas of all the suffixes
+            Arrays.fill(low, Double.POSITIVE_INFINITY);
+            Arrays.fill(high, Double.NEGATIVE_INFINITY);
+            for (int i=count-1; i>0; --i)
+            {
+                this.grow(low, high, this.order[first+i]);
+                rightAreas[i]=area(low, high);
+            }
+
+            //sweep the prefixes and compare to the matching suffix
+            Arrays.fill(low, Double.POSITIVE_INFINITY);
+            Arrays.fill(high, Double.NEGATIVE_INFINITY);
+            for (int i=1; i<count; ++i)
+            {
+                this.grow(low, high, this.order[first+i-1]);
+                double cost=splitCost(parentArea, area(low, high), i, rightAreas[i], count-i);
+                if (cost<bestCost)
+                {
+                    bestCost=cost;
+                    bestAxis=axis;
+                    bestSplit=i;
+                }
+            }
+        }
+
+        if (bestAxis<0)
+            return -1;
+        this.sort(first, count, bestAxis);
+        return bestSplit;
+    }
+
+    /**
+     * choose a split by the surface area heuristic, evaluated on the borders of equal bins of the centers
+     * @param node node being split (bounds already filled)
+     * @param low lowest center coordinates
+     * @param high highest center coordinates
+     * @return size of the left part, or -1 if no split is cheaper than a leaf
+     */
+    private int binnedSplit(Node node, int first, int count, double[] low, double[] high)
+    {
+        double bestCost=count*INTERSECTION_COST;
+        int bestAxis=-1, bestBin=-1;
+        double parentArea=area(node.low, node.high);
+
+        int[] binCounts=new int[BINS];
+        double[] binBoxes=new double[6*BINS];
+        double[] rightAreas=new double[BINS];
+        int[] rightCounts=new int[BINS];
+        double[] boxLow=new double[3], boxHigh=new double[3];
+
+        for (int axis=0; axis<3; ++axis)
+        {
+            double extent=high[axis]-low[axis];
+            if (extent<=0)
+                continue;
+
+            //drop every shape in the bin of its center
+            Arrays.fill(binCounts, 0);
+            for (int b=0; b<BINS; ++b)
+            {
+                Arrays.fill(binBoxes, 6*b, 6*b+3, Double.POSITIVE_INFINITY);
+                Arrays.fill(binBoxes, 6*b+3, 6*b+6, Double.NEGATIVE_INFINITY);
+            }
+            for (int i=first; i<first+count; ++i)
+            {
+                int shape=this.order[i];
+                int b=this.bin(shape, axis, low[axis], extent);
+                ++binCounts[b];
+                for (int a=0; a<3; ++a)
+                {
+                    binBoxes[6*b+a]=Math.min(binBoxes[6*b+a], this.boxes[6*shape+a]);
+                    binBoxes[6*b+3+a]=Math.max(binBoxes[6*b+3+a], this.boxes[6*shape+3+a]);
+                }
+            }
+
+            //accumulate the bins from the right
+            Arrays.fill(boxLow, Double.POSITIVE_INFINITY);
+            Arrays.fill(boxHigh, Double.NEGATIVE_INFINITY);
+            int right=0;
+            for (int b=BINS-1; b>0; --b)
+            {
+                right+=binCounts[b];
+                growBin(boxLow, boxHigh, binBoxes, b);
+                rightCounts[b]=right;
+                rightAreas[b]=area(boxLow, boxHigh);
+            }
+
+            //then sweep from the left, a split after bin b-1
+            Arrays.fill(boxLow, Double.POSITIVE_INFINITY);
+            Arrays.fill(boxHigh, Double.NEGATIVE_INFINITY);
+            int left=0;
+            for (int b=1; b<BINS; ++b)
+            {
+                left+=binCounts[b-1];
+                growBin(boxLow, boxHigh, binBoxes, b-1);
+                if (left==0||rightCounts[b]==0)
+                    continue;
+                double cost=splitCost(parentArea, area(boxLow, boxHigh), left, rightAreas[b], rightCounts[b]);
+                if (cost<bestCost)
+                {
+                    bestCost=cost;
+                    bestAxis=axis;
+                    bestBin=b;
+                }
+            }
+        }
+
+        if (bestAxis<0)
+            return -1;
+
+        //partition the range by the chosen bin border
+        double extent=high[bestAxis]-low[bestAxis];
+        int i=first, j=first+count-1;
+        while (i<=j)
+        {
+            if (this.bin(this.order[i], bestAxis, low[bestAxis], extent)<bestBin)
+            {
+                ++i;
+            }
+            else
+            {
+                int tmp=this.order[i];
+                this.order[i]=this.order[j];
+                this.order[j--]=tmp;
+            }
+        }
+        return i-first;
+    }
+
+    /**
+     * find the bin of a shape's center
+     * @return index of the bin
+     */
+    private int bin(int shape, int axis, double low, double extent)
+    {
+        int b=(int) (BINS*(this.centers[3*shape+axis]-low)/extent);
+        return Math.min(b, BINS-1);
+    }
+
+    /**
+     * sort a range of the shapes by their centers along an axis, in place and without boxing the indices.
+     * Shapes with the same center are ordered by index, so the result does not depend on the order before
+     */
+    private void sort(int first, int count, int axis)
+    {
+        this.sortRange(first, first+count-1, axis);
+    }
+
+    /**
+     * quicksort of the shapes between two positions of the order (both included), recursing into the
+     * smaller part only so the stack stays shallow, and finishing short ranges by insertion
+     */
+    private void sortRange(int lo, int hi, int axis)
+    {
+        while (hi-lo>=INSERTION_SORT)
+        {
+            //median of three as the pivot
+            int mid=(lo+hi)>>>1;
+            if (this.before(this.order[mid], this.order[lo], axis))
+                this.swap(lo, mid);
+            if (this.before(this.order[hi], this.order[lo], axis))
+                this.swap(lo, hi);
+            if (this.before(this.order[hi], this.order[mid], axis))
+                this.swap(mid, hi);
+            int pivot=this.order[mid];
+
+            int i=lo, j=hi;
+            while (i<=j)
+            {
+                while (this.before(this.order[i], pivot, axis))
+                    ++i;
+                while (this.before(pivot, this.order[j], axis))
+                    --j;
+                if (i<=j)
+                    this.swap(i++, j--);
+            }
+
+            if (j-lo<hi-i)
+            {
+                this.sortRange(lo, j, axis);
+                lo=i;
+            }
+            else
+            {
+                this.sortRange(i, hi, axis);
+                hi=j;
+            }
+        }
+
+        for (int i=lo+1; i<=hi; ++i)
+        {
+            int shape=this.order[i], j=i-1;
+            for (; j>=lo&&this.before(shape, this.order[j], axis); --j)
+                this.order[j+1]=this.order[j];
+            this.order[j+1]=shape;
+        }
+    }
+
+    /**
+     * check whether a shape comes before another when sorted along an axis
+     * @return true if the center of the first is lower, or the same with a lower index
+     */
+    private boolean before(int a, int b, int axis)
+    {
+        double ca=this.centers[3*a+axis], cb=this.centers[3*b+axis];
+        return ca<cb||(ca==cb&&a<b);
+    }
+
+    /**
+     * swap two positions of the order
+     */
+    private void swap(int i, int j)
+    {
+        int tmp=this.order[i];
+        this.order[i]=this.order[j];
+        this.order[j]=tmp;
+    }
+
+    /**
+     * grow bounds to contain a shape's box
+     */
+    private void grow(double[] low, double[] high, int shape)
+    {
+        for (int axis=0; axis<3; ++axis)
+        {
+            low[axis]=Math.min(low[axis], this.boxes[6*shape+axis]);
+            high[axis]=Math.max(high[axis], this.boxes[6*shape+3+axis]);
+        }
+    }
+
+    /**
+     * grow bounds to contain a bin's box
+     */
+    private static void growBin(double[] low, double[] high, double[] binBoxes, int bin)
+    {
+        for (int axis=0; axis<3; ++axis)
+        {
+            low[axis]=Math.min(low[axis], binBoxes[6*bin+axis]);
+            high[axis]=Math.max(high[axis], binBoxes[6*bin+3+axis]);
+        }
+    }
+
+    /**
+     * expected cost of a split by the surface area heuristic --
+     * the chance of a ray hitting a child is the ratio of its surface area to the parent's
+     */
+    private static double splitCost(double parentArea, double leftArea, int leftCount, double rightArea, int rightCount)
+    {
+        if (parentArea<=0)
+            return TRAVERSAL_COST+(leftCount+rightCount)*INTERSECTION_COST;
+        return TRAVERSAL_COST+(leftArea*leftCount+rightArea*rightCount)/parentArea*INTERSECTION_COST;
+    }
+
+    /**
+     * surface area of a box
+     */
+    private static double area(double[] low, double[] high)
+    {
+        double dx=high[0]-low[0], dy=high[1]-low[1], dz=high[2]-low[2];
+        return 2*(dx*dy+dy*dz+dz*dx);
+    }
+}
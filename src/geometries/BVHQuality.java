@@ -0,0 +1,23 @@
+package geometries;
+
+/**
+ * How much effort to put into building a bounding volume hierarchy.
+ * Better trees take longer to build, but every ray traced through them is cheaper
+ */
+public enum BVHQuality {
+    /**
+     * split in the median of the longest axis -- fastest build, weakest tree
+     */
+    MEDIAN,
+
+    /**
+     * surface area heuristic evaluated on a fixed amount of bins per axis -- quick to build, good for previews
+     */
+    BINNED_SAH,
+
+    /**
+     * surface area heuristic evaluated on every possible split (sweep over sorted shapes) -- slowest build,
+     * best tree, for final renders with many secondary rays
+     */
+    FULL_SAH
+}
@@ -95,7 +95,7 @@ public class Cylinder extends Tube {
             for (GeoPoint gp : res) {   //add all intersections of tube that are in the cylinder's bounders
                 //bounds check below
                 if (alignZero(va.dotProduct(gp.point.subtract(p1))) > 0 && alignZero(va.dotProduct(gp.point.subtract(p2))) < 0) {
-                    result.add(new GeoPoint(this, gp.point)); //ensure to add as cylinder geo and not tube
+                    result.add(new GeoPoint(this, gp.point, gp.t)); //ensure to add as cylinder geo and not tube
                 }
             }
         }
@@ -122,9 +122,9 @@ public class Cylinder extends Tube {
             //Add all intersections of plane that are in the base's bounders
             for (GeoPoint point : res) {
                 if (point.point.equals(p1)) { //avoid creating zero vector
-                    result.add(new GeoPoint(this, point.point)); //ensure to add as cylinder geo and not plane
+                    result.add(new GeoPoint(this, point.point, point.t)); //ensure to add as cylinder geo and not plane
                 } else if ((point.point.subtract(p1).dotProduct(point.point.subtract(p1)) < radSquared)) { //checks that point is inside the base
-                    result.add(new GeoPoint(this, point.point));//ensure to add as cylinder geo and not plane
+                    result.add(new GeoPoint(this, point.point, point.t));//ensure to add as cylinder geo and not plane
                 }
             }
         }
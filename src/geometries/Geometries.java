@@ -12,6 +12,18 @@ import java.util.List;
 public class Geometries extends Intersectable{
     private List<Intersectable> shapes;
 
+    //compiled bounding volume hierarchy over the bounded shapes, null if no hierarchy was built
+    private BVH hierarchy = null;
+
+    //shapes without a bounded box (planes, tubes), tested for every ray once a hierarchy is built
+    private List<Intersectable> unbounded = null;
+
+    //requested hierarchy quality, null if no hierarchy was requested
+    private BVHQuality bvhQuality = null;
+
+    //whether the requested hierarchy is built and up to date
+    private volatile boolean bvhBuilt = false;
+
     public Geometries()
     {
         shapes=new LinkedList<Intersectable>();
@@ -38,12 +50,18 @@ public class Geometries extends Intersectable{
 
     public void add(Intersectable ... shapes)
     {
-        double xMin=lowBound.getX(),
-               yMin=lowBound.getY(),
-               zMin=lowBound.getZ(),
-               xMax=highBound.getX(),
-               yMax=highBound.getY(),
-               zMax=highBound.getZ();
+        //a missing bound means an unbounded shape was already added
+        double xMin=lowBound==null ? Double.NEGATIVE_INFINITY : lowBound.getX(),
+               yMin=lowBound==null ? Double.NEGATIVE_INFINITY : lowBound.getY(),
+               zMin=lowBound==null ? Double.NEGATIVE_INFINITY : lowBound.getZ(),
+               xMax=highBound==null ? Double.POSITIVE_INFINITY : highBound.getX(),
+               yMax=highBound==null ? Double.POSITIVE_INFINITY : highBound.getY(),
+               zMax=highBound==null ? Double.POSITIVE_INFINITY : highBound.getZ();
+
+        //any hierarchy that was built no longer covers all the shapes, it will be rebuilt on demand
+        this.bvhBuilt=false;
+        this.hierarchy=null;
+        this.unbounded=null;
 
         for(Intersectable shape: shapes)
         {
@@ -88,14 +106,122 @@ public class Geometries extends Intersectable{
     }
 
 
+    /**
+     * request a bounding volume hierarchy over the shapes, so that a ray is only tested against
+     * the shapes whose bounded boxes it passes through.
+     * The hierarchy is built on the first intersection query, and rebuilt after shapes are added.
+     * @param quality how much effort to put into building the hierarchy, null for no hierarchy
+     * @return the object itself
+     */
+    public Geometries setBVH(BVHQuality quality)
+    {
+        this.bvhQuality=quality;
+        this.bvhBuilt=false;
+        this.hierarchy=null;
+        this.unbounded=null;
+        return this;
+    }
+
+    /**
+     * build a bounding volume hierarchy over the shapes with the binned surface area heuristic
+     * @return the object itself
+     */
+    public Geometries buildBVH()
+    {
+        return this.buildBVH(BVHQuality.BINNED_SAH);
+    }
+
+    /**
+     * build a bounding volume hierarchy over the shapes, so that a ray is only tested against
+     * the shapes whose bounded boxes it passes through.
+     * Nested Geometries are flattened into the hierarchy, and shapes without a bounded box are kept
+     * aside and tested for every ray.
+     * @param quality how much effort to put into building the hierarchy
+     * @return the object itself
+     */
+    public Geometries buildBVH(BVHQuality quality)
+    {
+        this.setBVH(quality);
+        this.buildHierarchy();
+        return this;
+    }
+
+    /**
+     * build the requested hierarchy, unless it is already built
+     */
+    private synchronized void buildHierarchy()
+    {
+        if (this.bvhBuilt)
+            return;
+
+        List<Intersectable> bounded=new ArrayList<>();
+        List<Intersectable> infinite=new LinkedList<>();
+        this.collectShapes(bounded, infinite);
+
+        double[] boxes=new double[6*bounded.size()];
+        for (int i=0; i<bounded.size(); ++i)
+        {
+            Intersectable shape=bounded.get(i);
+            boxes[6*i]=shape.lowBound.getX();
+            boxes[6*i+1]=shape.lowBound.getY();
+            boxes[6*i+2]=shape.lowBound.getZ();
+            boxes[6*i+3]=shape.highBound.getX();
+            boxes[6*i+4]=shape.highBound.getY();
+            boxes[6*i+5]=shape.highBound.getZ();
+        }
+        BVHBuilder builder=new BVHBuilder(boxes, bounded.size(), this.bvhQuality);
+        BVHBuilder.Node root=builder.build();
+
+        this.hierarchy=root==null ? null : new ShapeBVH(root, builder.order, bounded);
+        this.unbounded=infinite;
+        this.bvhBuilt=true;
+    }
+
+    /**
+     * sort the shapes (recursively through nested Geometries) by whether they have a bounded box
+     * @param bounded list to fill with shapes that have a bounded box
+     * @param infinite list to fill with shapes that don't
+     */
+    private void collectShapes(List<Intersectable> bounded, List<Intersectable> infinite)
+    {
+        for (Intersectable shape: this.shapes)
+        {
+            if (shape instanceof Geometries geometries)
+            {
+                geometries.collectShapes(bounded, infinite);
+            }
+            else if (shape.lowBound==null||shape.highBound==null)
+            {
+                infinite.add(shape);
+            }
+            else
+            {
+                bounded.add(shape);
+            }
+        }
+    }
+
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance)
     {
          // 2 lists, one to hold the current shape's intersection points, and one to hold all the intersections
          List<GeoPoint> res=null, cur=null;
 
-         //iterate through whole this.shapes, invoke findIntersections for each shape
-         for (Intersectable shape: this.shapes)
+         if (this.bvhQuality!=null && !this.bvhBuilt)
+         {
+             this.buildHierarchy();
+         }
+
+         //with a hierarchy only its root and the unbounded shapes have to be tested
+         List<Intersectable> candidates=this.shapes;
+         if (this.bvhQuality!=null)
+         {
+             res=this.hierarchy==null ? null : this.hierarchy.findGeoIntersections(ray, maxDistance);
+             candidates=this.unbounded;
+         }
+
+         //iterate through the candidates, invoke findIntersections for each shape
+         for (Intersectable shape: candidates)
          {
              cur=shape.findGeoIntersections(ray, maxDistance);
              if(cur!=null)
@@ -115,5 +241,69 @@ public class Geometries extends Intersectable{
 
     }
 
-}
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance)
+    {
+        if (this.bvhQuality!=null && !this.bvhBuilt)
+        {
+            this.buildHierarchy();
+        }
+
+        Double3 ktr=Double3.ONE;
+        List<Intersectable> candidates=this.shapes;
+        if (this.bvhQuality!=null)
+        {
+            if (this.hierarchy!=null)
+            {
+                ktr=this.hierarchy.findTransparency(ray, maxDistance);
+            }
+            candidates=this.unbounded;
+        }
+
+        //multiply the transparency of the shapes until the ray is blocked
+        for (Intersectable shape: candidates)
+        {
+            if (ktr.equals(Double3.ZERO))
+            {
+                return Double3.ZERO;
+            }
+            Double3 kt=shape.findTransparency(ray, maxDistance);
+            //most shapes are missed, no need to multiply by one
+            if (kt!=Double3.ONE)
+            {
+                ktr=ktr.product(kt);
+            }
+        }
 
+        return ktr;
+    }
+
+    @Override
+    protected boolean findClosestHitHelper(Ray ray, HitRecord hit)
+    {
+        if (this.bvhQuality!=null && !this.bvhBuilt)
+        {
+            this.buildHierarchy();
+        }
+
+        boolean found=false;
+        List<Intersectable> candidates=this.shapes;
+        if (this.bvhQuality!=null)
+        {
+            found=this.hierarchy!=null && this.hierarchy.findClosestHit(ray, hit);
+            candidates=this.unbounded;
+        }
+
+        //every hit found shrinks the distance the next shapes are searched in
+        for (Intersectable shape: candidates)
+        {
+            if (shape.findClosestHit(ray, hit))
+            {
+                found=true;
+            }
+        }
+
+        return found;
+    }
+
+}
@@ -9,6 +9,9 @@ import java.util.List;
  */
 public abstract class Geometry extends Intersectable {
 
+    //record for the hit test of opaque geometries along shadow rays, one per thread
+    private static final ThreadLocal<HitRecord> OCCLUSION_HIT = ThreadLocal.withInitial(HitRecord::new);
+
     protected Color emission = Color.BLACK;
     private Material material= new Material();
 
@@ -19,6 +22,17 @@ public abstract class Geometry extends Intersectable {
      */
     abstract public Vector getNormal(Point point);
 
+    /**
+     * Get the normal vector to a part of the geometry, for geometries made of many parts like meshes
+     * @param point Point to get the normal based on
+     * @param part index of the part the point is on
+     * @return Normal vector to the given point
+     */
+    protected Vector getNormal(Point point, int part)
+    {
+        return this.getNormal(point);
+    }
+
     /**
      * method that returns the emission color
      * @return
@@ -51,6 +65,17 @@ public abstract class Geometry extends Intersectable {
         // overriding classes will check further
     }
 
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance)
+    {
+        // an opaque geometry blocks the ray if it is hit anywhere, no need to collect the intersections
+        if (this.material.kT.equals(Double3.ZERO))
+        {
+            return this.findClosestHitHelper(ray, OCCLUSION_HIT.get().reset(maxDistance)) ? Double3.ZERO : Double3.ONE;
+        }
+        return super.findTransparencyHelper(ray, maxDistance);
+    }
+
     /**
      * get material
      * @return
@@ -32,6 +32,16 @@ public abstract class Intersectable {
          */
         public Point point;
 
+        /**
+         * distance of the point along the ray that hit it, NaN if unknown
+         */
+        public double t=Double.NaN;
+
+        /**
+         * normal of the geometry at the point, calculated on demand
+         */
+        public Vector normal=null;
+
         /**
          * construct a geoPoint
          * @param geo
@@ -43,6 +53,29 @@ public abstract class Intersectable {
             this.point=point;
         }
 
+        /**
+         * construct a geoPoint found by a ray
+         * @param geo
+         * @param point
+         * @param t distance of the point along the ray
+         */
+        public GeoPoint(Geometry geo, Point point, double t)
+        {
+            this(geo, point);
+            this.t=t;
+        }
+
+        /**
+         * get the normal of the geometry at the point, calculating it only once
+         * @return normal vector
+         */
+        public Vector getNormal()
+        {
+            if (this.normal==null)
+                this.normal=this.geometry.getNormal(this.point);
+            return this.normal;
+        }
+
         @Override
         public boolean equals(Object obj)
         {
@@ -65,6 +98,81 @@ public abstract class Intersectable {
     }
 
 
+    /**
+     * mutable record of the closest hit found so far by a ray.
+     * Allocation free alternative to GeoPoint for the closest hit query, meant to be reused between queries
+     */
+    public static class HitRecord {
+
+        /**
+         * the geometry hit, null if nothing was hit
+         */
+        public Geometry geometry=null;
+
+        /**
+         * distance of the hit along the ray, or the max distance to search in while nothing was hit
+         */
+        public double t=Double.POSITIVE_INFINITY;
+
+        /**
+         * index of the part of the geometry that was hit, for geometries made of many parts
+         * like meshes, -1 otherwise
+         */
+        public int part=-1;
+
+        /**
+         * prepare the record for a new query
+         * @param maxDistance upper bound of distance from ray head to the hit
+         * @return the record itself
+         */
+        public HitRecord reset(double maxDistance)
+        {
+            this.geometry=null;
+            this.t=maxDistance;
+            this.part=-1;
+            return this;
+        }
+
+        /**
+         * record a hit
+         * @param geometry the geometry hit
+         * @param t distance of the hit along the ray
+         */
+        public void set(Geometry geometry, double t)
+        {
+            this.set(geometry, t, -1);
+        }
+
+        /**
+         * record a hit on a part of a geometry
+         * @param geometry the geometry hit
+         * @param t distance of the hit along the ray
+         * @param part index of the part hit, -1 for the whole geometry
+         */
+        public void set(Geometry geometry, double t, int part)
+        {
+            this.geometry=geometry;
+            this.t=t;
+            this.part=part;
+        }
+
+        /**
+         * convert the hit to a GeoPoint
+         * @param ray the ray that found the hit
+         * @return GeoPoint of the hit, null if nothing was hit
+         */
+        public GeoPoint toGeoPoint(Ray ray)
+        {
+            if (this.geometry==null)
+                return null;
+            GeoPoint gp=new GeoPoint(this.geometry, ray.getPoint(this.t), this.t);
+            if (this.part>=0)
+                gp.normal=this.geometry.getNormal(gp.point, this.part);
+            return gp;
+        }
+    }
+
+
     /**
      * function that finds the points intersected by the ray on a geometry
      * @param ray the ray being shot
@@ -97,7 +205,7 @@ public abstract class Intersectable {
 
     public List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance)
     {
-            if(this.intersectBoundedBox(ray)) {
+            if(this.intersectBoundedBox(ray, maxDistance)) {
 
                 //check that there is a possibility of an intersection
                 return this.findGeoIntersectionsHelper(ray, maxDistance);
@@ -109,13 +217,109 @@ public abstract class Intersectable {
     }
 
 
+    /**
+     * method to find the closest intersection of a ray
+     * @param ray the ray
+     * @return the closest GeoPoint, null if there are no intersections
+     */
+    public GeoPoint findClosestGeoIntersection(Ray ray)
+    {
+        return this.findClosestGeoIntersection(ray, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * method to find the closest intersection of a ray up to a distance.
+     * Compatibility wrapper of {@link #findClosestHit(Ray, HitRecord)}
+     * @param ray the ray
+     * @param maxDistance upper bound of distance from ray head to the intersection point
+     * @return the closest GeoPoint, null if there are no intersections
+     */
+    public GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance)
+    {
+        HitRecord hit=new HitRecord().reset(maxDistance);
+        return this.findClosestHit(ray, hit) ? hit.toGeoPoint(ray) : null;
+    }
+
+    /**
+     * method to find the closest intersection of a ray, writing it into a caller provided record.
+     * Only hits closer than the one already in the record are searched for, so composites
+     * skip anything farther than the closest hit found so far
+     * @param ray the ray
+     * @param hit record of the closest hit so far, updated if a closer one is found
+     * @return true if a closer hit was found
+     */
+    public boolean findClosestHit(Ray ray, HitRecord hit)
+    {
+        if(this.intersectBoundedBox(ray, hit.t)) {
+            return this.findClosestHitHelper(ray, hit);
+        }
+        else {
+            return false;
+        }
+    }
+
+    /**
+     * helper method for the closest hit, overridden by geometries that can intersect without allocating
+     * and by composites to prune by distance. By default goes through the list of intersections
+     * @param ray the ray
+     * @param hit record of the closest hit so far, updated if a closer one is found
+     * @return true if a closer hit was found
+     */
+    protected boolean findClosestHitHelper(Ray ray, HitRecord hit)
+    {
+        GeoPoint closest=ray.findClosestGeoPoint(this.findGeoIntersectionsHelper(ray, hit.t));
+        if (closest==null)
+            return false;
+
+        hit.set(closest.geometry, Double.isNaN(closest.t) ? ray.findDistance(closest.point) : closest.t);
+        return true;
+    }
+
+    /**
+     * method to find how much light passes along a ray, eg a shadow ray towards a light source.
+     * Multiplies the transparency of the geometries at all the intersections up to the max distance,
+     * and stops looking as soon as the light is fully blocked by an opaque geometry
+     * @param ray the ray
+     * @param maxDistance upper bound of distance from ray head to intersection points
+     * @return accumulated transparency coefficient, Double3.ZERO if the ray is blocked
+     */
+    public Double3 findTransparency(Ray ray, double maxDistance)
+    {
+        if(this.intersectBoundedBox(ray, maxDistance)) {
+            return this.findTransparencyHelper(ray, maxDistance);
+        }
+        else {
+            return Double3.ONE;
+        }
+    }
+
+    /**
+     * helper method for transparency, overridden by composites to stop early
+     * @param ray the ray
+     * @param maxDistance upper bound of distance from ray head to intersection points
+     * @return accumulated transparency coefficient
+     */
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance)
+    {
+        List<GeoPoint> intersections=this.findGeoIntersectionsHelper(ray, maxDistance);
+
+        Double3 ktr=Double3.ONE;
+        if (intersections==null) return ktr;
+
+        for (GeoPoint intersection: intersections) {
+            ktr=ktr.product(intersection.geometry.getMaterial().kT);
+        }
+        return ktr;
+    }
+
     /**
      * function that will see if a ray intersects the bounded box
      * @param ray
+     * @param maxDistance the box is missed if the ray enters it only beyond this distance
      * @return
      */
 
-    private boolean intersectBoundedBox(Ray ray)
+    private boolean intersectBoundedBox(Ray ray, double maxDistance)
     {
 
 
@@ -144,7 +348,8 @@ public abstract class Intersectable {
         double tFar=Math.min(tMaxX,Math.min(tMaxY,tMaxZ));
 
         //if tNear is greater the tFar, missed box
-        if(Util.alignZero(tNear-tFar)>0||Util.alignZero(tFar)<0) {
+        //if the box starts beyond the max distance, missed box as well
+        if(Util.isPositive(tNear-tFar)||Util.isNegative(tFar)||Util.isPositive(tNear-maxDistance)) {
             return false;
         }
 
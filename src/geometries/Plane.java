@@ -68,40 +68,63 @@ public class Plane extends Geometry{
         return point;
     }
 
-    @Override
-    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance)
+    /**
+     * find the distance along a ray to its intersection with the plane, without allocating
+     * @param ray the ray
+     * @param maxDistance upper bound of distance from ray head to the intersection point
+     * @return the distance, 0 if there is no intersection up to the max distance
+     */
+    double findIntersectionDistance(Ray ray, double maxDistance)
     {
+        Point p0 = ray.getP0();
+
         //if the start point of the ray is in the plane
-        if(this.point.equals(ray.getP0()))
+        if(this.point.equals(p0))
         {
             // don't include ray start as an intersection
-            return null;
+            return 0;
         }
 
         //if the ray is parallel to the plane, no intersection
         double nDotV = this.normal.dotProduct(ray.getDir());
         if (Util.isZero(nDotV))
         {
-            return null;
+            return 0;
         }
 
         //take dot product of the normal and the vector made by the point minus the ray origin, if it is greater than 0, use that as a scalar in get point to get the intersection
         //else there is no intersections
-        double t = Util.alignZero(normal.dotProduct(point.subtract(ray.getP0())) / nDotV);
-        if (t <= 0 || Util.alignZero(t-maxDistance)>0) {
-            return null;
+        double t = Util.alignZero((this.normal.getX() * (this.point.getX() - p0.getX())
+                + this.normal.getY() * (this.point.getY() - p0.getY())
+                + this.normal.getZ() * (this.point.getZ() - p0.getZ())) / nDotV);
+        if (t <= 0 || Util.isPositive(t-maxDistance)) {
+            return 0;
         }
+        return t;
+    }
 
-
-
-        //floating point exception can still occur
-        try {
-            return List.of(new GeoPoint(this, ray.getPoint(t)));
+    @Override
+    protected boolean findClosestHitHelper(Ray ray, HitRecord hit)
+    {
+        double t = this.findIntersectionDistance(ray, hit.t);
+        if (t == 0)
+        {
+            return false;
         }
-        catch (IllegalArgumentException n)
+        hit.set(this, t);
+        return true;
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance)
+    {
+        double t = this.findIntersectionDistance(ray, maxDistance);
+        if (t == 0)
         {
-            return List.of(new GeoPoint(this, ray.getP0()));
+            return null;
         }
+
+        return List.of(new GeoPoint(this, ray.getPoint(t), t));
     }
 
     @Override
@@ -2,13 +2,12 @@ package geometries;
 
 import static primitives.Util.isZero;
 
-import java.util.ArrayList;
 import java.util.List;
 
-import org.junit.platform.commons.function.Try;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Util;
+import primitives.Vec3;
 import primitives.Vector;
 
 /** Polygon class represents two-dimensional polygon in 3D Cartesian coordinate
@@ -20,6 +19,11 @@ public class Polygon extends Geometry {
    /** Associated plane in which the polygon lays */
    protected final Plane       plane;
    private final int           size;
+   /** Inward normal of every edge in the plane of the polygon and its offset,
+    * 4 numbers per edge (x,y,z,offset): a point of the plane is inside the polygon
+    * if its dot product with every normal is greater than the offset.
+    * Not computed for a Triangle, which has an intersection of its own */
+   private double[]            edges;
 
    /** Polygon constructor based on vertices list. The list must be ordered by edge
     * path. The polygon must be convex.
@@ -79,6 +83,7 @@ public class Polygon extends Geometry {
          if (positive != (edge1.crossProduct(edge2).dotProduct(n) > 0))
             throw new IllegalArgumentException("All vertices must be ordered and the polygon must be convex");
       }
+      edges = edgeNormals(vertices, n);
 
       double xMin=Double.POSITIVE_INFINITY,
               yMin=Double.POSITIVE_INFINITY,
@@ -105,67 +110,66 @@ public class Polygon extends Geometry {
    @Override
    public Vector getNormal(Point point) { return plane.getNormal(); }
 
-   @Override
-   protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance)
-   {
-      //check if it falls in plane of polygon
-      List<GeoPoint> res=this.plane.findGeoIntersections(ray, maxDistance);
-
-      if (res==null)
-      {
-         return null;
-      }
-
-      //check if all the crossProducts are in same directions
-      Point p1, p2;
-      Point intersect=res.get(0).point;
-      List<Vector> crossList= new ArrayList<Vector>(this.vertices.size());
-      Vector v1;
-      Vector v2;
-      Vector v3;
-      double dotProduct;
-      double dotProduct2;
-
-
-      //if 0 vector created, return null
-      try
-      {
-         //get all the cross products
-         for (int x=0; x<this.vertices.size(); x++)
-         {
-            p1=this.vertices.get(x);
-            p2=this.vertices.get((x+1)%this.vertices.size());
-            v1=p2.subtract(p1);
-            v2=p1.subtract(intersect);
-            v3=v1.crossProduct(v2);
-            crossList.add(v3);
-         }
-
-      }
-      catch (IllegalArgumentException f)
-      {
-         return null;
+   /** Calculate the inward normals of the edges of a convex polygon, normalized so that the dot product
+    * of a point with a normal minus the offset is its distance from the edge
+    * @param  vertices the vertices, ordered by edge path
+    * @param  n        normal of the polygon plane
+    * @return          4 numbers per edge: the normal (x,y,z) and its offset */
+   private static double[] edgeNormals(Point[] vertices, Vector n) {
+      int      count = vertices.length;
+      double[] res   = new double[4 * count];
+      double   nx    = n.getX(), ny = n.getY(), nz = n.getZ();
+      for (int i = 0; i < count; ++i) {
+         Point  p1 = vertices[i], p2 = vertices[(i + 1) % count];
+         double ex = p2.getX() - p1.getX(), ey = p2.getY() - p1.getY(), ez = p2.getZ() - p1.getZ();
+         // in plane normal of the edge, n x e
+         double mx     = ny * ez - nz * ey, my = nz * ex - nx * ez, mz = nx * ey - ny * ex;
+         double length = Vec3.length(mx, my, mz);
+         res[4 * i]     = mx / length;
+         res[4 * i + 1] = my / length;
+         res[4 * i + 2] = mz / length;
+         res[4 * i + 3] = (mx * p1.getX() + my * p1.getY() + mz * p1.getZ()) / length;
       }
 
-      //get the first dot product
-      dotProduct=Util.alignZero(crossList.get(0).dotProduct(crossList.get(1)));
-      if (dotProduct==0)
-      {
-         return null;
-      }
+      // n x e points inwards for counterclockwise vertices, flip them all for clockwise ones
+      Point third = vertices[2];
+      if (res[0] * third.getX() + res[1] * third.getY() + res[2] * third.getZ() < res[3])
+         for (int i = 0; i < res.length; ++i)
+            res[i] = -res[i];
+      return res;
+   }
 
-      //check that all subsequent dot products are the same sign, if they aren't return null
-      for (int x=1; x<crossList.size(); ++x)
-      {
-         dotProduct2=Util.alignZero(crossList.get(x).dotProduct(crossList.get((x+1)%this.vertices.size())));
+   /** Find the distance along a ray to its intersection with the polygon, without allocating.
+    * The ray is intersected with the plane, and the point is inside if it is strictly inside of every edge
+    * @param  ray         the ray
+    * @param  maxDistance upper bound of distance from ray head to the intersection point
+    * @return             the distance, 0 if there is no intersection up to the max distance */
+   private double findIntersectionDistance(Ray ray, double maxDistance) {
+      double t = plane.findIntersectionDistance(ray, maxDistance);
+      if (t == 0) return 0;
+
+      Point  p0 = ray.getP0();
+      Vector v  = ray.getDir();
+      double px = p0.getX() + t * v.getX(), py = p0.getY() + t * v.getY(), pz = p0.getZ() + t * v.getZ();
+      // a point on an edge or a vertex is not an intersection
+      for (int i = 0; i < edges.length; i += 4)
+         if (!Util.isPositive(edges[i] * px + edges[i + 1] * py + edges[i + 2] * pz - edges[i + 3]))
+            return 0;
+      return t;
+   }
 
-         if(!Util.checkSign(dotProduct, dotProduct2))
-         {
-            return null;
-         }
-      }
+   @Override
+   protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+      double t = findIntersectionDistance(ray, maxDistance);
+      return t == 0 ? null : List.of(new GeoPoint(this, ray.getPoint(t), t));
+   }
 
-      return List.of(new GeoPoint(this, intersect));
+   @Override
+   protected boolean findClosestHitHelper(Ray ray, HitRecord hit) {
+      double t = findIntersectionDistance(ray, hit.t);
+      if (t == 0) return false;
+      hit.set(this, t);
+      return true;
    }
 
    @Override
@@ -0,0 +1,48 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import geometries.Intersectable.HitRecord;
+import primitives.Double3;
+import primitives.Ray;
+
+import java.util.List;
+
+/**
+ * Bounding volume hierarchy over intersectable shapes, the items of its leaves
+ */
+final class ShapeBVH extends BVH {
+    //shapes in leaf order
+    private final Intersectable[] shapes;
+
+    /**
+     * compile a built tree
+     * @param root root of the tree
+     * @param order permutation of the shapes, referred to by the leaves
+     * @param shapes the shapes the tree was built over
+     */
+    ShapeBVH(BVHBuilder.Node root, int[] order, List<Intersectable> shapes)
+    {
+        super(root);
+        this.shapes=new Intersectable[order.length];
+        for (int i=0; i<order.length; ++i)
+            this.shapes[i]=shapes.get(order[i]);
+    }
+
+    @Override
+    List<GeoPoint> findItemIntersections(int item, Ray ray, double maxDistance)
+    {
+        return this.shapes[item].findGeoIntersections(ray, maxDistance);
+    }
+
+    @Override
+    boolean findItemClosestHit(int item, Ray ray, HitRecord hit)
+    {
+        return this.shapes[item].findClosestHit(ray, hit);
+    }
+
+    @Override
+    Double3 findItemTransparency(int item, Ray ray, double maxDistance)
+    {
+        return this.shapes[item].findTransparency(ray, maxDistance);
+    }
+}
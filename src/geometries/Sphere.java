@@ -2,6 +2,7 @@ package geometries;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Util;
+import primitives.Vec3;
 import primitives.Vector;
 
 import java.util.List;
@@ -54,7 +55,10 @@ public class Sphere extends RadialGeometry{
     public Vector getNormal(Point point)
     {
         //the normal is the normalized vector created with point-center
-        return point.subtract(this.center).normalize();
+        double dx=point.getX()-this.center.getX(),
+               dy=point.getY()-this.center.getY(),
+               dz=point.getZ()-this.center.getZ();
+        return Vec3.unit(dx, dy, dz);
     }
 
     @Override
@@ -69,15 +73,19 @@ public class Sphere extends RadialGeometry{
         else
         {
             //get vector that goes through the origin
-            Vector u=this.getCenter().subtract(ray.getP0());
+            Point p0=ray.getP0();
+            Vector dir=ray.getDir();
+            double ux=this.center.getX()-p0.getX(),
+                   uy=this.center.getY()-p0.getY(),
+                   uz=this.center.getZ()-p0.getZ();
             //get the length of a side of the right triangle starting at ray origin, and considering vector u as the hypotenuse
-            tm = Util.alignZero(ray.getDir().dotProduct(u));
+            tm = Util.alignZero(dir.getX()*ux + dir.getY()*uy + dir.getZ()*uz);
             //get length of 3rd side of the right triangle, which is the distance from the origin to the ray
-            d = Util.alignZero(Math.sqrt(u.lengthSquared() - tm*tm));
+            d = Util.alignZero(Math.sqrt(ux*ux + uy*uy + uz*uz - tm*tm));
         }
 
         //if d is >= the radius of the sphere we have no intersections
-        if(Util.alignZero(d-this.radius)>=0)
+        if(!Util.isNegative(d-this.radius))
         {
             return null;
         }
@@ -91,9 +99,9 @@ public class Sphere extends RadialGeometry{
 
         // make sure distances are within given distance range
         // if not, forcefully exclude it by being super negative
-        if (Util.alignZero(t1-maxDistance)>0)
+        if (Util.isPositive(t1-maxDistance))
             t1 = Double.NEGATIVE_INFINITY;
-        if(Util.alignZero(t1-maxDistance)>0)
+        if(Util.isPositive(t2-maxDistance))
             t2 = Double.NEGATIVE_INFINITY;
 
 
@@ -102,17 +110,17 @@ public class Sphere extends RadialGeometry{
         if (t1>0 && t2>0)
         {
             return List.of(
-                new GeoPoint(this, ray.getPoint(t1)),
-                new GeoPoint(this, ray.getPoint(t2))
+                new GeoPoint(this, ray.getPoint(t1), t1),
+                new GeoPoint(this, ray.getPoint(t2), t2)
             );
         }
         else if (t1>0 && t2<=0)
         {
-            return List.of(new GeoPoint(this, ray.getPoint(t1)));
+            return List.of(new GeoPoint(this, ray.getPoint(t1), t1));
         }
         else if (t2>0 && t1<=0) // this wouldn't happen naturally, but can when faking distance
         {
-            return List.of(new GeoPoint(this, ray.getPoint(t2)));
+            return List.of(new GeoPoint(this, ray.getPoint(t2), t2));
         }
         else
         {
@@ -121,6 +129,46 @@ public class Sphere extends RadialGeometry{
 
     }
 
+    @Override
+    protected boolean findClosestHitHelper(Ray ray, HitRecord hit)
+    {
+        //same calculation as findGeoIntersectionsHelper, without allocating
+        Point p0=ray.getP0();
+        Vector dir=ray.getDir();
+        double tm, d;
+        if(this.center.equals(p0))
+        {
+            tm = 0;
+            d = 0;
+        }
+        else
+        {
+            double ux=this.center.getX()-p0.getX(),
+                   uy=this.center.getY()-p0.getY(),
+                   uz=this.center.getZ()-p0.getZ();
+            tm = Util.alignZero(dir.getX()*ux + dir.getY()*uy + dir.getZ()*uz);
+            d = Util.alignZero(Math.sqrt(ux*ux + uy*uy + uz*uz - tm*tm));
+        }
+
+        if(!Util.isNegative(d-this.radius))
+        {
+            return false;
+        }
+
+        double th = Math.sqrt(this.radius*this.radius - d*d);
+        double t1 = Util.alignZero(tm+th);
+        double t2 = Util.alignZero(tm-th);
+
+        //the nearer intersection is t2, unless it is behind the ray head
+        double t = t2>0 ? t2 : t1;
+        if (t<=0 || Util.isPositive(t-hit.t))
+        {
+            return false;
+        }
+        hit.set(this, t);
+        return true;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj)
@@ -5,10 +5,19 @@ import primitives.*;
 import java.util.List;
 
 /**
- * A flat triangle shape
+ * A flat triangle shape.
+ * Rays are intersected in a single pass (Moller-Trumbore) over edge vectors precomputed at construction,
+ * without allocating. By default a ray through an edge or a vertex does not hit the triangle;
+ * the watertight test counts such hits instead, so no ray slips between triangles that share an edge
  */
 public class Triangle extends Polygon {
 
+    //first vertex and the edges from it to the other two
+    private final double ax, ay, az;
+    private final double e1x, e1y, e1z, e2x, e2y, e2z;
+
+    private boolean watertight=false;
+
     /**
      * Constructs a triangle with the 3 points passed as parameters
      * @param p1 Point 1
@@ -27,6 +36,10 @@ public class Triangle extends Polygon {
 
         this.lowBound=new Point(xMin,yMin,zMin);
         this.highBound=new Point(xMax,yMax,zMax);
+
+        this.ax=p1.getX(); this.ay=p1.getY(); this.az=p1.getZ();
+        this.e1x=p2.getX()-this.ax; this.e1y=p2.getY()-this.ay; this.e1z=p2.getZ()-this.az;
+        this.e2x=p3.getX()-this.ax; this.e2y=p3.getY()-this.ay; this.e2z=p3.getZ()-this.az;
     }
 
     /**
@@ -38,38 +51,171 @@ public class Triangle extends Polygon {
         return this.vertices;
     }
 
+    /**
+     * choose whether rays through an edge or a vertex hit the triangle
+     * @param watertight true to count such hits, so that no ray passes between triangles sharing an edge
+     * @return the triangle itself
+     */
+    public Triangle setWatertight(boolean watertight)
+    {
+        this.watertight=watertight;
+        return this;
+    }
+
 
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance)
     {
-        List<GeoPoint> res= this.plane.findGeoIntersections(ray, maxDistance);
-
-        if(res==null) {
+        double t=this.findIntersectionDistance(ray, maxDistance);
+        if (t==0) {
             return null;
         }
+        return List.of(new GeoPoint(this, ray.getPoint(t), t));
+    }
+
+    @Override
+    protected boolean findClosestHitHelper(Ray ray, HitRecord hit)
+    {
+        double t=this.findIntersectionDistance(ray, hit.t);
+        if (t==0) {
+            return false;
+        }
+        hit.set(this, t);
+        return true;
+    }
 
-        // test if intersection point is inside the triangle
-        Point p0 = ray.getP0();
-        Vector v = ray.getDir();
-        // test if p is any of the triangle vertices
-        if (p0.equals(this.vertices.get(0)) || p0.equals(this.vertices.get(1)) || p0.equals(this.vertices.get(2))) {
-            return null;
+    /**
+     * find the distance along a ray to its intersection with the triangle, without allocating
+     * @param ray the ray
+     * @param maxDistance upper bound of distance from ray head to the intersection point
+     * @return the distance, 0 if there is no intersection up to the max distance
+     */
+    private double findIntersectionDistance(Ray ray, double maxDistance)
+    {
+        if (this.watertight)
+        {
+            Point b=this.vertices.get(1), c=this.vertices.get(2);
+            return intersectWatertight(ray, this.ax, this.ay, this.az, b.getX(), b.getY(), b.getZ(),
+                    c.getX(), c.getY(), c.getZ(), maxDistance);
         }
-        Vector  v1 = this.vertices.get(0).subtract(p0),
-                v2 = this.vertices.get(1).subtract(p0),
-                v3 = this.vertices.get(2).subtract(p0);
-        Vector  n1 = v1.crossProduct(v2).normalize(),
-                n2 = v2.crossProduct(v3).normalize(),
-                n3 = v3.crossProduct(v1).normalize();
-        double  dot1 = Util.alignZero(v.dotProduct(n1)),
-                dot2 = Util.alignZero(v.dotProduct(n2)),
-                dot3 = Util.alignZero(v.dotProduct(n3));
-        if ( Util.checkSign(dot1, dot2)&& Util.checkSign(dot2, dot3))
+        return intersect(ray, this.ax, this.ay, this.az, this.e1x, this.e1y, this.e1z,
+                this.e2x, this.e2y, this.e2z, maxDistance);
+    }
+
+    /**
+     * Moller-Trumbore ray triangle intersection: the distance and the barycentric coordinates of the hit
+     * in one pass. A hit on an edge or a vertex is not an intersection
+     * @param ray the ray
+     * @param ax first vertex x
+     * @param ay first vertex y
+     * @param az first vertex z
+     * @param e1x edge from the first to the second vertex x
+     * @param e1y edge from the first to the second vertex y
+     * @param e1z edge from the first to the second vertex z
+     * @param e2x edge from the first to the third vertex x
+     * @param e2y edge from the first to the third vertex y
+     * @param e2z edge from the first to the third vertex z
+     * @param maxDistance upper bound of distance from ray head to the intersection point
+     * @return the distance, 0 if there is no intersection up to the max distance
+     */
+    static double intersect(Ray ray, double ax, double ay, double az,
+                            double e1x, double e1y, double e1z, double e2x, double e2y, double e2z,
+                            double maxDistance)
+    {
+        Point p0=ray.getP0();
+        Vector dir=ray.getDir();
+        double dx=dir.getX(), dy=dir.getY(), dz=dir.getZ();
+
+        // ray parallel to the triangle, or a degenerate triangle
+        double  px=dy*e2z-dz*e2y, py=dz*e2x-dx*e2z, pz=dx*e2y-dy*e2x;
+        double det=e1x*px+e1y*py+e1z*pz;
+        if (Util.isZero(det))
+            return 0;
+        double inv=1/det;
+
+        // barycentric coordinates of the hit, on an edge or a vertex is not a hit
+        double sx=p0.getX()-ax, sy=p0.getY()-ay, sz=p0.getZ()-az;
+        double u=(sx*px+sy*py+sz*pz)*inv;
+        if (!Util.isPositive(u)||!Util.isNegative(u-1))
+            return 0;
+        double  qx=sy*e1z-sz*e1y, qy=sz*e1x-sx*e1z, qz=sx*e1y-sy*e1x;
+        double v=(dx*qx+dy*qy+dz*qz)*inv;
+        if (!Util.isPositive(v)||!Util.isNegative(u+v-1))
+            return 0;
+
+        double t=(e2x*qx+e2y*qy+e2z*qz)*inv;
+        if (!Util.isPositive(t)||Util.isPositive(t-maxDistance))
+            return 0;
+        return t;
+    }
+
+    /**
+     * watertight ray triangle intersection (Woop, Benthin and Wald): the vertices are sheared into the space
+     * of the ray, where the ray runs along the z axis, and the hit is tested by the signs of the 2D edge
+     * functions. Hits on edges and vertices count, and a ray through a shared edge hits at least one of the
+     * triangles, however the edge is cut by rounding
+     * @param ray the ray
+     * @param ax first vertex x
+     * @param ay first vertex y
+     * @param az first vertex z
+     * @param bx second vertex x
+     * @param by second vertex y
+     * @param bz second vertex z
+     * @param cx third vertex x
+     * @param cy third vertex y
+     * @param cz third vertex z
+     * @param maxDistance upper bound of distance from ray head to the intersection point
+     * @return the distance, 0 if there is no intersection up to the max distance
+     */
+    static double intersectWatertight(Ray ray, double ax, double ay, double az, double bx, double by, double bz,
+                                      double cx, double cy, double cz, double maxDistance)
+    {
+        Point p0=ray.getP0();
+        Vector dir=ray.getDir();
+        double ox=p0.getX(), oy=p0.getY(), oz=p0.getZ();
+        double dx=dir.getX(), dy=dir.getY(), dz=dir.getZ();
+
+        // vertices relative to the ray head, with the largest direction component as the z axis
+        double  aX=ax-ox, aY=ay-oy, aZ=az-oz,
+                bX=bx-ox, bY=by-oy, bZ=bz-oz,
+                cX=cx-ox, cY=cy-oy, cZ=cz-oz;
+        double absX=Math.abs(dx), absY=Math.abs(dy), absZ=Math.abs(dz), tmp;
+        if (absX>absY&&absX>absZ)
+        {
+            //rotate x into z: (y,z,x)
+            tmp=dx; dx=dy; dy=dz; dz=tmp;
+            tmp=aX; aX=aY; aY=aZ; aZ=tmp;
+            tmp=bX; bX=bY; bY=bZ; bZ=tmp;
+            tmp=cX; cX=cY; cY=cZ; cZ=tmp;
+        }
+        else if (absY>absZ)
         {
-            // all the dot products have same sign -- point is inside triangle
-            return List.of(new GeoPoint(this, res.get(0).point));
+            //rotate y into z: (z,x,y)
+            tmp=dz; dz=dy; dy=dx; dx=tmp;
+            tmp=aZ; aZ=aY; aY=aX; aX=tmp;
+            tmp=bZ; bZ=bY; bY=bX; bX=tmp;
+            tmp=cZ; cZ=cY; cY=cX; cX=tmp;
         }
-        return null;
-   }
-   
+
+        // shear the vertices so the ray runs along z
+        double sx=dx/dz, sy=dy/dz, sz=1/dz;
+        double  aXs=aX-sx*aZ, aYs=aY-sy*aZ,
+                bXs=bX-sx*bZ, bYs=bY-sy*bZ,
+                cXs=cX-sx*cZ, cYs=cY-sy*cZ;
+
+        // edge functions, all of the same sign (or zero) inside the triangle
+        double  u=cXs*bYs-cYs*bXs,
+                v=aXs*cYs-aYs*cXs,
+                w=bXs*aYs-bYs*aXs;
+        if ((u<0||v<0||w<0)&&(u>0||v>0||w>0))
+            return 0;
+        double det=u+v+w;
+        if (det==0)
+            return 0;
+
+        double t=(u*aZ+v*bZ+w*cZ)*sz/det;
+        if (!Util.isPositive(t)||Util.isPositive(t-maxDistance))
+            return 0;
+        return t;
+    }
 }
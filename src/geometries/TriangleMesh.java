@@ -0,0 +1,256 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import geometries.Intersectable.HitRecord;
+import primitives.*;
+
+import java.util.List;
+
+/**
+ * A mesh of flat triangles sharing their vertices, all with the same emission and material.
+ * Vertex positions and the index triples of the triangles are kept in primitive arrays,
+ * and the triangles are searched through a bounding volume hierarchy of their own,
+ * so a mesh takes tens of bytes per triangle instead of the kilobytes of separate {@link Triangle}s.
+ * As with a Triangle, a ray through an edge or a vertex of a triangle does not hit it, unless the mesh
+ * is set watertight.
+ * The hit part of a {@link HitRecord} is the index of the triangle hit
+ */
+public class TriangleMesh extends Geometry {
+    //vertex positions, 3 numbers per vertex (x,y,z)
+    private final double[] vertices;
+
+    //vertex indices of the triangles, 3 per triangle, in the leaf order of the hierarchy
+    private final int[] indices;
+
+    private final BVH hierarchy;
+
+    private boolean watertight=false;
+
+    /**
+     * Constructs a mesh, with the triangles searched through a hierarchy built by the binned surface area heuristic
+     * @param vertices vertex positions, 3 numbers per vertex (x,y,z). The array is kept by the mesh,
+     *                 and must not be changed afterwards
+     * @param indices vertex indices of the triangles, 3 per triangle
+     * @throws IllegalArgumentException if the arrays are not made of triples, if there are no triangles
+     *                                  or if an index is not of a vertex
+     */
+    public TriangleMesh(double[] vertices, int[] indices)
+    {
+        this(vertices, indices, BVHQuality.BINNED_SAH);
+    }
+
+    /**
+     * Constructs a mesh
+     * @param vertices vertex positions, 3 numbers per vertex (x,y,z). The array is kept by the mesh,
+     *                 and must not be changed afterwards
+     * @param indices vertex indices of the triangles, 3 per triangle
+     * @param quality how much effort to put into building the hierarchy over the triangles
+     * @throws IllegalArgumentException if the arrays are not made of triples, if there are no triangles,
+     *                                  if an index is not of a vertex or if the quality is null
+     */
+    public TriangleMesh(double[] vertices, int[] indices, BVHQuality quality)
+    {
+        if (vertices.length%3!=0||indices.length%3!=0)
+            throw new IllegalArgumentException("ERROR, vertices and triangles are given by triples");
+        if (indices.length==0)
+            throw new IllegalArgumentException("ERROR, a mesh must have triangles");
+        if (quality==null)
+            throw new IllegalArgumentException("ERROR, quality can't be null");
+
+        int count=indices.length/3;
+        double[] boxes=new double[6*count];
+        for (int tri=0; tri<count; ++tri)
+        {
+            for (int axis=0; axis<3; ++axis)
+            {
+                boxes[6*tri+axis]=Double.POSITIVE_INFINITY;
+                boxes[6*tri+3+axis]=Double.NEGATIVE_INFINITY;
+            }
+            for (int corner=0; corner<3; ++corner)
+            {
+                int vertex=indices[3*tri+corner];
+                if (vertex<0||3*vertex>=vertices.length)
+                    throw new IllegalArgumentException("ERROR, triangle " + tri + " refers to a missing vertex");
+                for (int axis=0; axis<3; ++axis)
+                {
+                    boxes[6*tri+axis]=Math.min(boxes[6*tri+axis], vertices[3*vertex+axis]);
+                    boxes[6*tri+3+axis]=Math.max(boxes[6*tri+3+axis], vertices[3*vertex+axis]);
+                }
+            }
+        }
+
+        BVHBuilder builder=new BVHBuilder(boxes, count, quality);
+        BVHBuilder.Node root=builder.build();
+
+        //keep the triangles in leaf order, so the leaves refer to them directly
+        this.vertices=vertices;
+        this.indices=new int[indices.length];
+        for (int tri=0; tri<count; ++tri)
+            System.arraycopy(indices, 3*builder.order[tri], this.indices, 3*tri, 3);
+        this.hierarchy=new Hierarchy(root);
+
+        this.lowBound=new Point(root.low[0], root.low[1], root.low[2]);
+        this.highBound=new Point(root.high[0], root.high[1], root.high[2]);
+    }
+
+    /**
+     * choose whether rays through an edge or a vertex of a triangle hit it
+     * @param watertight true to count such hits, so that no ray slips between neighbouring triangles.
+     *                   A ray through a shared edge may then hit both of its triangles
+     * @return the mesh itself
+     */
+    public TriangleMesh setWatertight(boolean watertight)
+    {
+        this.watertight=watertight;
+        return this;
+    }
+
+    /**
+     * getter for the amount of triangles
+     * @return amount of triangles
+     */
+    public int getTriangleCount()
+    {
+        return this.indices.length/3;
+    }
+
+    /**
+     * getter for the amount of vertices
+     * @return amount of vertices
+     */
+    public int getVertexCount()
+    {
+        return this.vertices.length/3;
+    }
+
+    /**
+     * Get the normal of the triangle the point is on. Searches all the triangles for the one nearest to the point,
+     * prefer the normal of a GeoPoint found by a ray, which already knows its triangle
+     * @param point Point to get the normal based on
+     * @return Normal vector to the given point
+     */
+    @Override
+    public Vector getNormal(Point point)
+    {
+        double px=point.getX(), py=point.getY(), pz=point.getZ();
+        int nearest=-1;
+        double best=Double.POSITIVE_INFINITY;
+        for (int tri=0; tri<this.getTriangleCount(); ++tri)
+        {
+            int a=3*this.indices[3*tri], b=3*this.indices[3*tri+1], c=3*this.indices[3*tri+2];
+            double  e1x=this.vertices[b]-this.vertices[a], e1y=this.vertices[b+1]-this.vertices[a+1], e1z=this.vertices[b+2]-this.vertices[a+2],
+                    e2x=this.vertices[c]-this.vertices[a], e2y=this.vertices[c+1]-this.vertices[a+1], e2z=this.vertices[c+2]-this.vertices[a+2],
+                    sx=px-this.vertices[a], sy=py-this.vertices[a+1], sz=pz-this.vertices[a+2];
+
+            //barycentric coordinates of the projection of the point on the plane of the triangle
+            double  d11=e1x*e1x+e1y*e1y+e1z*e1z, d12=e1x*e2x+e1y*e2y+e1z*e2z, d22=e2x*e2x+e2y*e2y+e2z*e2z,
+                    s1=sx*e1x+sy*e1y+sz*e1z, s2=sx*e2x+sy*e2y+sz*e2z;
+            double det=d11*d22-d12*d12;
+            if (Util.isZero(det))
+                continue;
+            double u=(d22*s1-d12*s2)/det, v=(d11*s2-d12*s1)/det;
+            if (Util.isNegative(u)||Util.isNegative(v)||Util.isPositive(u+v-1))
+                continue;
+
+            double  nx=e1y*e2z-e1z*e2y, ny=e1z*e2x-e1x*e2z, nz=e1x*e2y-e1y*e2x;
+            double distance=Math.abs(sx*nx+sy*ny+sz*nz)/Vec3.length(nx, ny, nz);
+            if (distance<best)
+            {
+                best=distance;
+                nearest=tri;
+            }
+        }
+        if (nearest<0)
+            throw new IllegalArgumentException("ERROR, the point is not on the mesh");
+        return this.getNormal(point, nearest);
+    }
+
+    @Override
+    protected Vector getNormal(Point point, int part)
+    {
+        int a=3*this.indices[3*part], b=3*this.indices[3*part+1], c=3*this.indices[3*part+2];
+        double  e1x=this.vertices[b]-this.vertices[a], e1y=this.vertices[b+1]-this.vertices[a+1], e1z=this.vertices[b+2]-this.vertices[a+2],
+                e2x=this.vertices[c]-this.vertices[a], e2y=this.vertices[c+1]-this.vertices[a+1], e2z=this.vertices[c+2]-this.vertices[a+2];
+        double  nx=e1y*e2z-e1z*e2y, ny=e1z*e2x-e1x*e2z, nz=e1x*e2y-e1y*e2x;
+        return Vec3.unit(nx, ny, nz);
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance)
+    {
+        return this.hierarchy.findGeoIntersections(ray, maxDistance);
+    }
+
+    @Override
+    protected boolean findClosestHitHelper(Ray ray, HitRecord hit)
+    {
+        return this.hierarchy.findClosestHit(ray, hit);
+    }
+
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance)
+    {
+        // every triangle hit multiplies by the transparency of the material, an opaque mesh stops at the first one
+        return this.hierarchy.findTransparency(ray, maxDistance);
+    }
+
+    /**
+     * find the distance along a ray to its intersection with a triangle, without allocating
+     * @param tri index of the triangle
+     * @param ray the ray
+     * @param maxDistance upper bound of distance from ray head to the intersection point
+     * @return the distance, 0 if there is no intersection up to the max distance
+     */
+    private double findIntersectionDistance(int tri, Ray ray, double maxDistance)
+    {
+        int a=3*this.indices[3*tri], b=3*this.indices[3*tri+1], c=3*this.indices[3*tri+2];
+        double[] v=this.vertices;
+        if (this.watertight)
+            return Triangle.intersectWatertight(ray, v[a], v[a+1], v[a+2], v[b], v[b+1], v[b+2],
+                    v[c], v[c+1], v[c+2], maxDistance);
+        return Triangle.intersect(ray, v[a], v[a+1], v[a+2], v[b]-v[a], v[b+1]-v[a+1], v[b+2]-v[a+2],
+                v[c]-v[a], v[c+1]-v[a+1], v[c+2]-v[a+2], maxDistance);
+    }
+
+    /**
+     * hierarchy over the triangles of the mesh, the items of its leaves are the triangle indices
+     */
+    private final class Hierarchy extends BVH {
+
+        /**
+         * compile the built tree
+         * @param root root of the tree
+         */
+        Hierarchy(BVHBuilder.Node root)
+        {
+            super(root);
+        }
+
+        @Override
+        List<GeoPoint> findItemIntersections(int item, Ray ray, double maxDistance)
+        {
+            double t=findIntersectionDistance(item, ray, maxDistance);
+            if (t==0)
+                return null;
+            GeoPoint gp=new GeoPoint(TriangleMesh.this, ray.getPoint(t), t);
+            gp.normal=getNormal(gp.point, item);
+            return List.of(gp);
+        }
+
+        @Override
+        boolean findItemClosestHit(int item, Ray ray, HitRecord hit)
+        {
+            double t=findIntersectionDistance(item, ray, hit.t);
+            if (t==0)
+                return false;
+            hit.set(TriangleMesh.this, t, item);
+            return true;
+        }
+
+        @Override
+        Double3 findItemTransparency(int item, Ray ray, double maxDistance)
+        {
+            return findIntersectionDistance(item, ray, maxDistance)==0 ? Double3.ONE : getMaterial().kT;
+        }
+    }
+}
@@ -160,12 +160,12 @@ public class Tube extends RadialGeometry {
         List<GeoPoint> result = null; //default to null
         if (t0 > 0 && isInDistance(t0, maxDistance)) { //t0 is within bounds
             result = initListIfNull(result); //init list
-            result.add(new GeoPoint(this, ray.getPoint(t0)));
+            result.add(new GeoPoint(this, ray.getPoint(t0), t0));
         }
 
         if (t1 > 0 && isInDistance(t1, maxDistance)) { //t1 is within bounds
             result = initListIfNull(result);
-            result.add(new GeoPoint(this, ray.getPoint(t1)));
+            result.add(new GeoPoint(this, ray.getPoint(t1), t1));
         }
         return result; //return the list of points (or null if empty
     }
@@ -21,6 +21,29 @@ public interface LightSource {
      */
    public Vector getL(Point point);
 
+    /**
+     * intensity of the lightSource on a specific point, written into scratch space instead of a new color
+     * @param point the point
+     * @param intensity filled with the rgb of the intensity
+     * @return the scratch space given
+     */
+    public default Vec3 getIntensity(Point point, Vec3 intensity)
+    {
+        return intensity.set(this.getIntensity(point));
+    }
+
+    /**
+     * direction vector of the LightSource to the point, written into scratch space instead of a new vector
+     * @param point the point
+     * @param l filled with the unit direction
+     * @return the scratch space given
+     */
+    public default Vec3 getL(Point point, Vec3 l)
+    {
+        Vector dir=this.getL(point);
+        return l.set(dir.getX(), dir.getY(), dir.getZ());
+    }
+
     /**
      * returns the distance between the lightsource and a point
      * @param point
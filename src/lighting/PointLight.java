@@ -59,15 +59,32 @@ public class PointLight extends Light implements LightSource{
 
     @Override
     public Color getIntensity(Point point) {
-        return this.getIntensity().reduce(this.kC
-                +this.kL*this.position.distance(point)
-                +this.kQ*this.position.distanceSquared(point)); //attenuation factor math
+        return this.getIntensity(point, new Vec3()).toColor();
+    }
+
+    @Override
+    public Vec3 getIntensity(Point point, Vec3 intensity)
+    {
+        double distanceSquared=intensity.setDifference(this.position, point).lengthSquared();
+        return intensity.set(this.getIntensity()).reduce(this.kC
+                +this.kL*Math.sqrt(distanceSquared)
+                +this.kQ*distanceSquared); //attenuation factor math
     }
 
     @Override
     public Vector getL(Point point)
     {
-        return point.subtract(this.position).normalize();
+        return this.getL(point, new Vec3()).toVector();
+    }
+
+    @Override
+    public Vec3 getL(Point point, Vec3 l)
+    {
+        double length=l.setDifference(point, this.position).length();
+        //no direction from the light to itself
+        if (Util.isZero(length))
+            throw new IllegalArgumentException("ERROR, the point is the position of the light");
+        return l.reduce(length);
     }
 
     @Override
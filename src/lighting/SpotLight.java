@@ -25,12 +25,12 @@ public class SpotLight extends PointLight{
     }
 
     @Override
-    public Color getIntensity(Point p)
+    public Vec3 getIntensity(Point p, Vec3 intensity)
     {
-        // point light attenuation by distance, multiplied with spotlight focus and narrowing
-        return super.getIntensity(p).scale(
-                Math.pow(Math.max(0,direction.dotProduct(this.getL(p))), narrow)
-        );
+        // point light attenuation by distance, multiplied with spotlight focus and narrowing.
+        // the direction to the point goes through the scratch space before the intensity does
+        double focus=Math.pow(Math.max(0,this.getL(p, intensity).dot(direction)), narrow);
+        return super.getIntensity(p, intensity).scale(focus);
     }
 
     /**
@@ -8,7 +8,7 @@ package primitives;
 public class Color {
    /** The internal fields maintain RGB components as double numbers from 0 to
     * whatever... */
-   private final Double3     rgb;
+   final Double3             rgb;
 
    /** Black color = (0,0,0) */
    public static final Color BLACK = new Color();
@@ -76,6 +76,25 @@ public class Color {
       return new Color(rr, rg, rb);
    }
 
+   /** Operation of adding this and another color (by component), without the array
+    * of the varargs version
+    * @param  color the other color to add
+    * @return       new Color object which is a result of the operation */
+   public Color add(Color color) {
+      return new Color(rgb.d1 + color.rgb.d1, rgb.d2 + color.rgb.d2, rgb.d3 + color.rgb.d3);
+   }
+
+   /** Operation of adding this and two other colors (by component), without the array
+    * of the varargs version
+    * @param  c1 first color to add
+    * @param  c2 second color to add
+    * @return    new Color object which is a result of the operation */
+   public Color add(Color c1, Color c2) {
+      return new Color(rgb.d1 + c1.rgb.d1 + c2.rgb.d1,
+                       rgb.d2 + c1.rgb.d2 + c2.rgb.d2,
+                       rgb.d3 + c1.rgb.d3 + c2.rgb.d3);
+   }
+
    /** Scale the color by a scalar triad per rgb
     * @param  k scale factor per rgb
     * @return   new Color object which is the result of the operation */
@@ -110,6 +129,14 @@ public class Color {
       return new Color(rgb.d1 / k.d1, rgb.d2 / k.d2, rgb.d3 / k.d3);
    }
 
+   /** Measure how far apart two colors are, as the biggest difference of any single component
+    * @param  other the other color
+    * @return       the largest absolute difference between matching components */
+   public double difference(Color other) {
+      return Math.max(Math.abs(rgb.d1 - other.rgb.d1),
+                      Math.max(Math.abs(rgb.d2 - other.rgb.d2), Math.abs(rgb.d3 - other.rgb.d3)));
+   }
+
    @Override
    public String toString() { return "rgb:" + rgb; }
 
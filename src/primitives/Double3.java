@@ -97,6 +97,12 @@ public class Double3 {
       return new Double3(d1 * rhs.d1, d2 * rhs.d2, d3 * rhs.d3);
    }
 
+   /** Find the largest of the three numbers
+    * @return the largest number */
+   public double max() {
+      return Math.max(d1, Math.max(d2, d3));
+   }
+
    /** Checks whether all the numbers are lower than a test number
     * @param  k the test number
     * @return   true if all the numbers are less than k, false otherwise */
@@ -105,6 +111,15 @@ public class Double3 {
       return d1 < k && d2 < k && d3 < k;
    }
 
+   /** Checks whether all the numbers of the product with another triad are lower than a
+    * test number, without making the product triad
+    * @param  rhs right handle side triad of the product
+    * @param  k   the test number
+    * @return     true if all the numbers of the product are less than k, false otherwise */
+   public boolean productLowerThan(Double3 rhs, double k) {
+      return d1 * rhs.d1 < k && d2 * rhs.d2 < k && d3 * rhs.d3 < k;
+   }
+
    /** Checks whether all the numbers are lower than three numbers in another triad
     * @param  other other triad
     * @return       true if all the numbers are less that appropriate numbers in
@@ -51,8 +51,9 @@ public class Point {
      */
     public double distanceSquared(Point other)
     {
-         Double3 delta=this.xyz.subtract(other.xyz);
-         return delta.d1*delta.d1 + delta.d2*delta.d2 + delta.d3*delta.d3;
+         //in plain numbers, to not allocate the difference
+         double dx=this.xyz.d1-other.xyz.d1, dy=this.xyz.d2-other.xyz.d2, dz=this.xyz.d3-other.xyz.d3;
+         return dx*dx + dy*dy + dz*dz;
     }
 
     /**
@@ -95,21 +96,16 @@ public class Point {
     }
 
     /**
-     * function that scales a point
-     * @param v
-     * @param k
-     * @return
+     * move the point along a scaled vector, without building the scaled vector (never throws)
+     * @param v the vector
+     * @param k scale of the vector
+     * @return the moved point, the point itself if the scale is zero
      */
     public Point addScaled(Vector v, double k)
     {
-        if (!Util.isZero(k)) {
-            try {
-                return this.add(v.scale(k));
-            } catch (IllegalArgumentException n) {
-                // shrunk to zero vector
-            }
-        }
-        return this;
+        if (Util.isZero(k))
+            return this;
+        return new Point(new Double3(this.xyz.d1+k*v.xyz.d1, this.xyz.d2+k*v.xyz.d2, this.xyz.d3+k*v.xyz.d3));
     }
 
 
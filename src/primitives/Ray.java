@@ -22,6 +22,74 @@ public class Ray {
         this.dir=vector.normalize();
     }
 
+    /**
+     * Create a ray leaving a surface, with its head moved a small distance along the surface normal
+     * to the side the ray goes to, so the ray doesn't hit the surface it leaves
+     * @param point point on the surface
+     * @param vector ray direction
+     * @param normal normal of the surface at the point
+     * @param delta distance to move the head by
+     */
+    public Ray(Point point, Vector vector, Vector normal, double delta)
+    {
+        this(offset(point, vector, normal, delta), vector.normalize(), true);
+    }
+
+    /**
+     * Internal constructor for a direction that is already of unit length
+     * @param point ray head
+     * @param unit ray direction, of unit length
+     * @param trusted unused, tells this constructor apart
+     */
+    private Ray(Point point, Vector unit, boolean trusted)
+    {
+        this.p0=point;
+        this.dir=unit;
+    }
+
+    /**
+     * Create a ray with a direction that is already of unit length, without normalizing it again.
+     * For the hot paths of tracing, eg reflections of unit vectors or rays that go on in the direction
+     * of another ray. Use the constructor for anything else
+     * @param point ray head
+     * @param unit ray direction, of unit length
+     * @return the ray
+     */
+    public static Ray trusted(Point point, Vector unit)
+    {
+        return new Ray(point, unit, true);
+    }
+
+    /**
+     * Create a ray leaving a surface, with a direction that is already of unit length,
+     * see {@link #Ray(Point, Vector, Vector, double)} and {@link #trusted(Point, Vector)}
+     * @param point point on the surface
+     * @param unit ray direction, of unit length
+     * @param normal normal of the surface at the point
+     * @param delta distance to move the head by
+     * @return the ray
+     */
+    public static Ray trusted(Point point, Vector unit, Vector normal, double delta)
+    {
+        return new Ray(offset(point, unit, normal, delta), unit, true);
+    }
+
+    /**
+     * move a point on a surface along the normal, to the side a direction goes to
+     * @param point point on the surface
+     * @param vector the direction
+     * @param normal normal of the surface at the point
+     * @param delta distance to move the point by
+     * @return the moved point, the point itself if the direction is along the surface
+     */
+    private static Point offset(Point point, Vector vector, Vector normal, double delta)
+    {
+        double nv=Util.alignZero(normal.dotProduct(vector));
+        if (nv==0)
+            return point;
+        return point.addScaled(normal, nv>0 ? delta : -delta);
+    }
+
     /**
      * Get the origin point of the ray
      * @return origin point
@@ -74,12 +142,7 @@ public class Ray {
             return this.p0;
         }
         else {
-            try {
-                return this.p0.add(this.dir.scale(_t));
-            } catch (IllegalArgumentException n)
-            {
-                return this.p0;
-            }
+            return this.p0.addScaled(this.dir, _t);
         }
     }
 
@@ -105,11 +168,19 @@ public class Ray {
            if (gpt==null)
                continue;
 
-           //check if we have the same point as p0
-           if (this.p0.equals(gpt.point))
-               return gpt;
+           //use the distance found by the intersection if there is one
+           if (!Double.isNaN(gpt.t))
+           {
+               cur=gpt.t;
+           }
+           else
+           {
+               //check if we have the same point as p0
+               if (this.p0.equals(gpt.point))
+                   return gpt;
 
-           cur=this.p0.distance(gpt.point);
+               cur=this.p0.distance(gpt.point);
+           }
 
            if (cur<distance)
            {
@@ -0,0 +1,95 @@
+package primitives;
+
+/**
+ * Random number generation for sampling. Every thread has a generator of its own (SplitMix64),
+ * so render threads never contend over a shared one, and the generator can be reseeded from a
+ * render seed and a sample position, so a render gives the same image on every run and for any
+ * amount of threads.
+ */
+public final class Rng {
+    private static final long GOLDEN_GAMMA=0x9E3779B97F4A7C15L;
+
+    //state of the generator of every thread, unseeded threads start from a different place each
+    private static final ThreadLocal<long[]> STATE=ThreadLocal.withInitial(
+            () -> new long[] { mix(System.nanoTime()^Thread.currentThread().getId()*GOLDEN_GAMMA) });
+
+    /**
+     * Empty private constructor to hide the public one
+     */
+    private Rng() {}
+
+    /**
+     * scramble the bits of a number (the SplitMix64 finalizer)
+     * @param z the number
+     * @return the scrambled number
+     */
+    private static long mix(long z)
+    {
+        z=(z^(z>>>30))*0xBF58476D1CE4E5B9L;
+        z=(z^(z>>>27))*0x94D049BB133111EBL;
+        return z^(z>>>31);
+    }
+
+    /**
+     * reseed the generator of the current thread
+     * @param seed the seed
+     */
+    public static void seed(long seed)
+    {
+        STATE.get()[0]=mix(seed);
+    }
+
+    /**
+     * reseed the generator of the current thread for a sample position, so the numbers drawn for
+     * the sample depend on the render seed and the position only
+     * @param seed the render seed
+     * @param x column of the sample
+     * @param y row of the sample
+     */
+    public static void seed(long seed, double x, double y)
+    {
+        long h=mix(seed+GOLDEN_GAMMA);
+        h=mix(h^Double.doubleToLongBits(x));
+        h=mix(h^Double.doubleToLongBits(y));
+        STATE.get()[0]=h;
+    }
+
+    /**
+     * run an action on a generator seeded for it, leaving the generator of the current thread as it was
+     * @param seed the seed
+     * @param action the action, drawing its numbers from this class as usual
+     */
+    public static void runSeeded(long seed, Runnable action)
+    {
+        long[] state=STATE.get();
+        long saved=state[0];
+        state[0]=mix(seed);
+        try
+        {
+            action.run();
+        }
+        finally
+        {
+            state[0]=saved;
+        }
+    }
+
+    /**
+     * draw the next number of the current thread
+     * @return a random long
+     */
+    public static long nextLong()
+    {
+        long[] state=STATE.get();
+        return mix(state[0]+=GOLDEN_GAMMA);
+    }
+
+    /**
+     * draw the next number of the current thread
+     * @return a random number in range 0 (included) to 1 (excluded)
+     */
+    public static double nextDouble()
+    {
+        return (nextLong()>>>11)*0x1.0p-53;
+    }
+}
@@ -12,23 +12,20 @@ public abstract class Util {
 	// It is binary, equivalent to ~1/1,000,000,000,000 in decimal (12 digits)
 	private static final int ACCURACY = -25;
 
+	/**
+	 * Numbers smaller than this in absolute value are considered zero, 2 to the power of ACCURACY
+	 */
+	public static final double EPSILON = Math.scalb(1.0, ACCURACY);
+
 	/**
 	 * Empty private constructor to hide the public one
 	 */
 	private Util() {}
 
-	// double store format (bit level):
-	//    seee eeee eeee (1.)mmmmmmmmmmmmmmmmmmmmmmmmmmmmmmmmmmmmmmmmmmmmmmmmmmmm
-	// 1 bit sign, 11 bits exponent, 53 bits (52 stored) normalized mantissa
-	// the number is m+2^e where 1<=m<2
-	// NB: exponent is stored "normalized" (i.e. always positive by adding 1023)
-	private static int getExp(double num) {
-		// 1. doubleToRawLongBits: "convert" the stored number to set of bits
-		// 2. Shift all 52 bits to the right (removing mantissa)
-		// 3. Zero the sign of number bit by mask 0x7FF
-		// 4. "De-normalize" the exponent by subtracting 1023
-		return (int) ((Double.doubleToRawLongBits(num) >> 52) & 0x7FFL) - 1023;
-	}
+	// A number is [almost] zero if its binary exponent is below ACCURACY, ie its absolute value is below
+	// 2^ACCURACY. Comparing the absolute value is the same test without taking the double apart
+	// into its bits, and the JIT turns it into a couple of instructions with no branch.
+	// Subnormal numbers are zero, infinities and NaN are not.
 
 	/**
 	 * Checks whether the number is [almost] zero
@@ -37,7 +34,7 @@ public abstract class Util {
 	 * @return true if the number is zero or almost zero, false otherwise
 	 */
 	public static boolean isZero(double number) {
-		return getExp(number) < ACCURACY;
+		return Math.abs(number) < EPSILON;
 	}
 
 	/**
@@ -47,7 +44,53 @@ public abstract class Util {
 	 * @return 0.0 if the number is very close to zero, the number itself otherwise
 	 */
 	public static double alignZero(double number) {
-		return getExp(number) < ACCURACY ? 0.0 : number;
+		return Math.abs(number) < EPSILON ? 0.0 : number;
+	}
+
+	/**
+	 * Checks whether the number is positive and not almost zero, the same as {@code alignZero(number) > 0}
+	 * with a single comparison
+	 * 
+	 * @param number the number to check
+	 * @return true if the number is positive beyond the accuracy, false otherwise (and for NaN)
+	 */
+	public static boolean isPositive(double number) {
+		return number >= EPSILON;
+	}
+
+	/**
+	 * Checks whether the number is negative and not almost zero, the same as {@code alignZero(number) < 0}
+	 * with a single comparison
+	 * 
+	 * @param number the number to check
+	 * @return true if the number is negative beyond the accuracy, false otherwise (and for NaN)
+	 */
+	public static boolean isNegative(double number) {
+		return number <= -EPSILON;
+	}
+
+	/**
+	 * Checks whether the number is [almost] zero, by an absolute tolerance of the caller
+	 * 
+	 * @param number  the number to check
+	 * @param epsilon the largest absolute value that is not zero
+	 * @return true if the absolute value of the number is below epsilon
+	 */
+	public static boolean isZero(double number, double epsilon) {
+		return Math.abs(number) < epsilon;
+	}
+
+	/**
+	 * Checks whether two numbers are [almost] equal, relative to their size. Suits numbers of any
+	 * magnitude, eg coordinates of big scenes, where the absolute tolerance is too tight
+	 * 
+	 * @param n1       1st number
+	 * @param n2       2nd number
+	 * @param relative allowed difference as a fraction of the larger absolute value
+	 * @return true if the numbers differ by no more than the relative tolerance
+	 */
+	public static boolean isClose(double n1, double n2, double relative) {
+		return Math.abs(n1 - n2) <= relative * Math.max(Math.abs(n1), Math.abs(n2));
 	}
 
 	/**
@@ -62,14 +105,14 @@ public abstract class Util {
 	}
 
 	/**
-	 * Provide a real random number in range between min and max
+	 * Provide a real random number in range between min and max, from the generator of the current thread
 	 * 
 	 * @param min value (included)
 	 * @param max value (excluded)
 	 * @return the random value
 	 */
 	public static double random(double min, double max) {
-		return Math.random() * (max - min) + min;
+		return Rng.nextDouble() * (max - min) + min;
 	}
 
 	//helper methods, some aren't really necessary but i did it because why not and it saves on duplication of code
@@ -0,0 +1,166 @@
+package primitives;
+
+/**
+ * Mutable triad of plain doubles for the render hot path: a direction, a point or a color that is
+ * worked on in place instead of allocating a new immutable {@link Vector} or {@link Color} on every step.
+ * A Vec3 is scratch space of a single thread and must not be kept after the call that filled it.
+ * The static helpers do the same math on loose coordinates.
+ */
+public final class Vec3 {
+    /** First component (x, or red) */
+    public double x;
+    /** Second component (y, or green) */
+    public double y;
+    /** Third component (z, or blue) */
+    public double z;
+
+    /**
+     * length of a vector given by its coordinates
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @param z z-coordinate
+     * @return the length
+     */
+    public static double length(double x, double y, double z)
+    {
+        return Math.sqrt(x*x+y*y+z*z);
+    }
+
+    /**
+     * normalize a vector given by its coordinates, without the checks of the Vector constructor
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @param z z-coordinate, the vector must not be zero
+     * @return the unit vector
+     */
+    public static Vector unit(double x, double y, double z)
+    {
+        double length=length(x, y, z);
+        return Vector.trusted(x/length, y/length, z/length);
+    }
+
+    /**
+     * set the components
+     * @param x first component
+     * @param y second component
+     * @param z third component
+     * @return the triad itself
+     */
+    public Vec3 set(double x, double y, double z)
+    {
+        this.x=x;
+        this.y=y;
+        this.z=z;
+        return this;
+    }
+
+    /**
+     * set the components to the rgb of a color
+     * @param color the color
+     * @return the triad itself
+     */
+    public Vec3 set(Color color)
+    {
+        return this.set(color.rgb.d1, color.rgb.d2, color.rgb.d3);
+    }
+
+    /**
+     * set the components to the vector from one point to another
+     * @param head the point the vector goes to
+     * @param tail the point the vector starts at
+     * @return the triad itself
+     */
+    public Vec3 setDifference(Point head, Point tail)
+    {
+        return this.set(head.xyz.d1-tail.xyz.d1, head.xyz.d2-tail.xyz.d2, head.xyz.d3-tail.xyz.d3);
+    }
+
+    /**
+     * squared length of the triad as a vector
+     * @return the squared length
+     */
+    public double lengthSquared()
+    {
+        return this.x*this.x+this.y*this.y+this.z*this.z;
+    }
+
+    /**
+     * length of the triad as a vector
+     * @return the length
+     */
+    public double length()
+    {
+        return Math.sqrt(this.lengthSquared());
+    }
+
+    /**
+     * dot product with a vector
+     * @param v the vector
+     * @return the dot product
+     */
+    public double dot(Vector v)
+    {
+        return v.xyz.d1*this.x+v.xyz.d2*this.y+v.xyz.d3*this.z;
+    }
+
+    /**
+     * multiply every component by a scalar
+     * @param k the scalar
+     * @return the triad itself
+     */
+    public Vec3 scale(double k)
+    {
+        return this.set(this.x*k, this.y*k, this.z*k);
+    }
+
+    /**
+     * multiply the components by the matching components of a triad
+     * @param k the factors
+     * @return the triad itself
+     */
+    public Vec3 scale(Double3 k)
+    {
+        return this.set(this.x*k.d1, this.y*k.d2, this.z*k.d3);
+    }
+
+    /**
+     * divide every component by a scalar
+     * @param k the scalar
+     * @return the triad itself
+     */
+    public Vec3 reduce(double k)
+    {
+        return this.set(this.x/k, this.y/k, this.z/k);
+    }
+
+    /**
+     * add another triad multiplied by per component factors and a scalar, this+v*(k*f)
+     * @param v the triad to add
+     * @param k factors per component
+     * @param f the scalar
+     * @return the triad itself
+     */
+    public Vec3 addScaled(Vec3 v, Double3 k, double f)
+    {
+        return this.set(this.x+v.x*(k.d1*f), this.y+v.y*(k.d2*f), this.z+v.z*(k.d3*f));
+    }
+
+    /**
+     * make a vector of the triad, without the checks of the Vector constructor
+     * @return the vector, the triad must not be zero
+     */
+    public Vector toVector()
+    {
+        return Vector.trusted(this.x, this.y, this.z);
+    }
+
+    /**
+     * make a color of the triad
+     * @return the color
+     * @throws IllegalArgumentException if a component is negative
+     */
+    public Color toColor()
+    {
+        return new Color(this.x, this.y, this.z);
+    }
+}
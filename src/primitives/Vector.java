@@ -27,6 +27,30 @@ public class Vector extends Point {
         }
     }
 
+    /**
+     * Internal constructor for a triplet of doubles known not to be zero, skipping the check
+     * @param point triplet of doubles
+     * @param trusted unused, tells this constructor apart
+     */
+    private Vector(Double3 point, boolean trusted)
+    {
+        super(point);
+    }
+
+    /**
+     * creates a vector without checking that it is not the zero vector, for the hot paths of
+     * intersection and shading where the result can't be zero by construction (eg a reflected unit vector).
+     * Use the constructor for anything else
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @param z z-coordinate
+     * @return the vector
+     */
+    public static Vector trusted(double x, double y, double z)
+    {
+        return new Vector(new Double3(x, y, z), true);
+    }
+
     /**
      * creates a vector
      * @param x x-coordinate
@@ -106,7 +130,8 @@ public class Vector extends Point {
      * @return new normalized vector
      */
     public Vector normalize() {
-        return new Vector(this.xyz.reduce(this.length()));
+        // a vector that is not zero never normalizes to zero
+        return new Vector(this.xyz.reduce(this.length()), true);
     }
 
     @Override
@@ -1,8 +1,15 @@
 package renderer;
 import primitives.*;
 
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.MissingResourceException;
-import java.util.stream.IntStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 
 public class Camera {
@@ -15,9 +22,29 @@ public class Camera {
     private RayTracerBase rayTracer;
 
     private Boolean threading=false;
+    private int threadCount=0;
+    private ExecutorService executor=null;
+    private boolean virtualThreads=false;
+
+    //0 for a single ray through every pixel center
+    private int supersamplingDepth=0;
+    private double supersamplingThreshold=0;
+
+    //1 for a single ray through every pixel center
+    private int pixelSamples=1;
+    private SampleGenerator sampleGenerator=SamplePattern.STRATIFIED;
+
+    private long seed=0;
+
+    private RenderProgress.Listener progressListener=RenderProgress.CONSOLE;
+    private long progressInterval=500;
+    private volatile RenderProgress progress=null;
+
+    private int tileSize=16;
+    private TileScheduler.Order tileOrder=TileScheduler.Order.HILBERT;
 
     /**
-     * setter for threading
+     * setter for threading, rendering on a pool of its own sized by {@link #setThreadCount(int)}
      * @param val
      * @return
      */
@@ -27,6 +54,161 @@ public class Camera {
         return this;
     }
 
+    /**
+     * setter for the amount of render threads, 1 renders on the calling thread only
+     * @param threadCount amount of threads
+     * @return the Camera object itself
+     * @throws IllegalArgumentException if the amount is not positive
+     */
+    public Camera setThreadCount(int threadCount)
+    {
+        if (threadCount<=0)
+            throw new IllegalArgumentException("ERROR, thread count must be positive");
+        this.threadCount=threadCount;
+        this.threading=threadCount>1;
+        return this;
+    }
+
+    /**
+     * setter for an executor to render on. The camera submits as many workers as the thread count
+     * (the amount of available processors if it is not set) and never shuts the executor down
+     * @param executor the executor, null to go back to the camera's own threads
+     * @return the Camera object itself
+     */
+    public Camera setExecutor(ExecutorService executor)
+    {
+        this.executor=executor;
+        return this;
+    }
+
+    /**
+     * setter for rendering every tile on a virtual thread of its own.
+     * On JVMs without virtual threads, renders on a pool of its own like {@link #setThreading(boolean)}
+     * @param val
+     * @return the Camera object itself
+     */
+    public Camera setVirtualThreads(boolean val)
+    {
+        this.virtualThreads=val;
+        return this;
+    }
+
+    /**
+     * setter for supersampling with a fixed amount of samples per pixel, spread by the sample generator.
+     * Adaptive supersampling, if set, takes precedence
+     * @param samples amount of samples per pixel, 1 for a single ray through the pixel center
+     * @return the Camera object itself
+     * @throws IllegalArgumentException if the amount is not positive
+     */
+    public Camera setSupersampling(int samples)
+    {
+        if (samples<=0)
+            throw new IllegalArgumentException("ERROR, amount of samples must be positive");
+        this.pixelSamples=samples;
+        return this;
+    }
+
+    /**
+     * setter for the generator that spreads the samples of a pixel
+     * @param sampleGenerator the generator, see {@link SamplePattern} for the built in ones
+     * @return the Camera object itself
+     */
+    public Camera setSampleGenerator(SampleGenerator sampleGenerator)
+    {
+        this.sampleGenerator=sampleGenerator;
+        return this;
+    }
+
+    /**
+     * setter for adaptive supersampling. Every pixel is sampled at its corners and center, and is divided
+     * into quadrants, sampled the same way, as long as the samples differ by more than the threshold
+     * @param maxDepth maximal levels of division, 1 samples every pixel once at its corners and center,
+     *                 0 turns supersampling off
+     * @param threshold largest difference of a color component (0-255) between samples that is still
+     *                  considered the same color
+     * @return the Camera object itself
+     * @throws IllegalArgumentException if the depth or the threshold is negative
+     */
+    public Camera setAdaptiveSupersampling(int maxDepth, double threshold)
+    {
+        if (maxDepth<0||threshold<0)
+            throw new IllegalArgumentException("ERROR, supersampling depth and threshold must not be negative");
+        this.supersamplingDepth=maxDepth;
+        this.supersamplingThreshold=threshold;
+        return this;
+    }
+
+    /**
+     * setter for the seed of the random numbers drawn while rendering. The generator is reseeded
+     * from it for every sample, so the same seed gives the same image for any amount of threads
+     * @param seed the seed
+     * @return the Camera object itself
+     */
+    public Camera setSeed(long seed)
+    {
+        this.seed=seed;
+        return this;
+    }
+
+    /**
+     * setter for the listener that is told about the progress of every render
+     * @param listener the listener, {@link RenderProgress#NONE} to stay silent
+     * @return the Camera object itself
+     */
+    public Camera setProgressListener(RenderProgress.Listener listener)
+    {
+        this.progressListener=listener;
+        return this;
+    }
+
+    /**
+     * setter for the time between progress reports
+     * @param millis interval in milliseconds
+     * @return the Camera object itself
+     * @throws IllegalArgumentException if the interval is not positive
+     */
+    public Camera setProgressInterval(long millis)
+    {
+        if (millis<=0)
+            throw new IllegalArgumentException("ERROR, progress interval must be positive");
+        this.progressInterval=millis;
+        return this;
+    }
+
+    /**
+     * getter for the progress of the current render, or of the last one if none is running
+     * @return the progress, null if nothing was rendered yet
+     */
+    public RenderProgress getProgress()
+    {
+        return this.progress;
+    }
+
+    /**
+     * setter for the size of the tiles the image is split into while rendering
+     * @param tileSize width and height of a tile in pixels
+     * @return the Camera object itself
+     * @throws IllegalArgumentException if the size is not positive
+     */
+    public Camera setTileSize(int tileSize)
+    {
+        if (tileSize<=0)
+            throw new IllegalArgumentException("ERROR, tile size must be positive");
+        this.tileSize=tileSize;
+        return this;
+    }
+
+    /**
+     * setter for the order the tiles are rendered in
+     * @param tileOrder the order
+     * @return the Camera object itself
+     */
+    public Camera setTileOrder(TileScheduler.Order tileOrder)
+    {
+        this.tileOrder=tileOrder;
+        return this;
+    }
+
     /**
      * construct the camera, by passing its location point and 2 vectors, that must be orthogonal
      * @param location where the camera is
@@ -157,26 +339,50 @@ public class Camera {
      */
     public Ray constructRay(int nX, int nY, int j, int i)
     {
-        //image center
-        Point pC=this.location.add(this.vTo.scale(this.distance));
+        return this.constructRay(nX, nY, (double)j, (double)i);
+    }
 
+    /**
+     * method to construct ray through any point of the viewPlane, in pixel units
+     * @param nX number of columns (in px resolution)
+     * @param nY number of rows (in px resolution)
+     * @param x column coordinate, pixel centers are at whole numbers
+     * @param y row coordinate, pixel centers are at whole numbers
+     * @return the ray constructed
+     */
+    public Ray constructRay(int nX, int nY, double x, double y)
+    {
         //get ratio of pixel size
         double rY=this.height/nY;
         double rX=this.width/nX;
 
         //get the pixel coordinate point
-        double yI=-(i-((nY-1.0)/2.0))*rY;
-        double xJ=(j-((nX-1.0)/2.0))*rX;
-        Point pIJ=pC;
-
-        //shifting Pij properly
-        pIJ = pIJ.addScaled(this.vRight, xJ).addScaled(this.vUp, yI);
+        double yI=-(y-((nY-1.0)/2.0))*rY;
+        double xJ=(x-((nX-1.0)/2.0))*rX;
+
+        //image center shifted to the pixel, in plain numbers to not allocate the points on the way
+        double  px=this.location.getX()+this.vTo.getX()*this.distance,
+                py=this.location.getY()+this.vTo.getY()*this.distance,
+                pz=this.location.getZ()+this.vTo.getZ()*this.distance;
+        if (!Util.isZero(xJ))
+        {
+            px+=xJ*this.vRight.getX();
+            py+=xJ*this.vRight.getY();
+            pz+=xJ*this.vRight.getZ();
+        }
+        if (!Util.isZero(yI))
+        {
+            px+=yI*this.vUp.getX();
+            py+=yI*this.vUp.getY();
+            pz+=yI*this.vUp.getZ();
+        }
 
-        //the direction vector
-        Vector vIJ=pIJ.subtract(this.location);
+        //the direction vector, never zero since the view plane is in front of the camera
+        double dx=px-this.location.getX(), dy=py-this.location.getY(), dz=pz-this.location.getZ();
+        Vector vIJ=Vec3.unit(dx, dy, dz);
 
         //now that we have the start of the ray and the vector, let us return that built ray
-        return new Ray(this.location, vIJ);
+        return Ray.trusted(this.location, vIJ);
     }
 
     /**
@@ -195,40 +401,276 @@ public class Camera {
         if (this.iw == null)
             throw new MissingResourceException("missing imageWriter", "ImageWriter", "iw");
 
-        Ray cameraRay;
-        Color pixelColor;
+        int nX=this.iw.getNx(), nY=this.iw.getNy();
+        TileScheduler scheduler=new TileScheduler(nX, nY, this.tileSize, this.tileOrder);
+        RenderProgress progress=new RenderProgress((long)nX*nY);
+        this.progress=progress;
 
-        if(this.threading)
+        Thread poller=progress.poll(this.progressListener, this.progressInterval);
+        try
         {
-            Pixel.initialize(iw.getNx(), iw.getNy(), 100l);
-            IntStream.range(0, iw.getNx()).parallel().forEach(j -> {
-                IntStream.range(0, iw.getNy()).parallel().forEach(i -> {
-                    this.iw.writePixel(j,i, this.rayTracer.traceRay(this.constructRay(iw.getNx(), iw.getNy(), j,i)));
-                    Pixel.pixelDone();
-                    Pixel.printPixel();
-                });
-            });
+            this.render(scheduler, progress, nX, nY);
         }
-        else {
-            Pixel.initialize(this.iw.getNy(), this.iw.getNx(), 100l);
-            for (int i = 0; i < this.iw.getNy(); ++i)
-                for (int j = 0; j < this.iw.getNx(); ++j) {
-                    this.iw.writePixel(j,i, this.rayTracer.traceRay(this.constructRay(iw.getNx(), iw.getNy(), j,i)));
-                    Pixel.pixelDone();
-                    Pixel.printPixel();
-                //}
-//            // loop over all x, y values, print the grid lines
-//            for (int j = 0; j < iw.getNx(); j++) {
-//                for (int i = 0; i < iw.getNy(); i++) {
-//                    cameraRay = this.constructRay(iw.getNx(), iw.getNy(), j, i);
-//                    pixelColor = this.rayTracer.traceRay(cameraRay);
-//                    this.iw.writePixel(j, i, pixelColor);
-                //}
+        finally
+        {
+            //let the listener see the final state before returning
+            poller.interrupt();
+            try
+            {
+                poller.join();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
             }
         }
         return this;
     }
 
+    /**
+     * Render all tiles on the threads the camera is set up with
+     * @param scheduler source of the tiles
+     * @param progress progress of the render
+     * @param nX number of columns (in px resolution)
+     * @param nY number of rows (in px resolution)
+     */
+    private void render(TileScheduler scheduler, RenderProgress progress, int nX, int nY)
+    {
+        if (this.executor!=null)
+        {
+            this.renderOn(this.executor, this.workerCount(), scheduler, progress, nX, nY);
+            return;
+        }
+
+        //one virtual thread per tile, if the JVM has them
+        ExecutorService virtual=this.virtualThreads ? newVirtualThreadExecutor() : null;
+        if (virtual!=null)
+        {
+            try
+            {
+                this.renderOn(virtual, scheduler.getTileCount(), scheduler, progress, nX, nY);
+            }
+            finally
+            {
+                virtual.shutdown();
+            }
+        }
+        else if (this.threading||this.virtualThreads)
+        {
+            //a pool of our own, so the renderer neither competes over nor blocks the common pool
+            ForkJoinPool pool=new ForkJoinPool(this.workerCount());
+            try
+            {
+                this.renderOn(pool, this.workerCount(), scheduler, progress, nX, nY);
+            }
+            finally
+            {
+                pool.shutdown();
+            }
+        }
+        else
+        {
+            this.renderTiles(scheduler, progress, nX, nY);
+        }
+    }
+
+    /**
+     * amount of workers to render with
+     * @return the thread count set, or the amount of available processors if none was set
+     */
+    private int workerCount()
+    {
+        return this.threadCount>0 ? this.threadCount : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Render on an executor and wait until all tiles are done
+     * @param executor the executor to run the workers on
+     * @param workers amount of workers to submit, each rendering tiles until none are left
+     * @param scheduler source of the tiles
+     * @param progress progress of the render
+     * @param nX number of columns (in px resolution)
+     * @param nY number of rows (in px resolution)
+     * @throws IllegalStateException if rendering was interrupted
+     */
+    private void renderOn(ExecutorService executor, int workers, TileScheduler scheduler, RenderProgress progress,
+                          int nX, int nY)
+    {
+        List<Future<?>> futures=new LinkedList<>();
+        for (int w=0; w<workers; ++w)
+            futures.add(executor.submit(() -> this.renderTiles(scheduler, progress, nX, nY)));
+
+        try
+        {
+            for (Future<?> future : futures)
+                future.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("ERROR, rendering was interrupted", e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            if (e.getCause() instanceof Error cause)
+                throw cause;
+            throw new IllegalStateException("ERROR, rendering failed", e.getCause());
+        }
+    }
+
+    /**
+     * create an executor that starts a virtual thread per task, through reflection so the renderer
+     * still runs on JVMs without virtual threads
+     * @return the executor, null if the JVM has no virtual threads
+     */
+    private static ExecutorService newVirtualThreadExecutor()
+    {
+        try
+        {
+            return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Render tiles until the scheduler runs out of them
+     * @param scheduler source of the tiles
+     * @param progress progress of the render
+     * @param nX number of columns (in px resolution)
+     * @param nY number of rows (in px resolution)
+     */
+    private void renderTiles(TileScheduler scheduler, RenderProgress progress, int nX, int nY)
+    {
+        //scratch space of this worker, reused for every tile
+        double[] samples=this.pixelSamples>1 ? new double[2*this.pixelSamples] : null;
+        BorderSamples borders=this.supersamplingDepth>0 ? new BorderSamples(nX, nY, this.supersamplingDepth) : null;
+
+        for (int tile=scheduler.nextTile(); tile!=-1; tile=scheduler.nextTile())
+        {
+            int x0=scheduler.getX0(tile), x1=scheduler.getX1(tile);
+            int y0=scheduler.getY0(tile), y1=scheduler.getY1(tile);
+            if (this.supersamplingDepth==0)
+            {
+                for (int i=y0; i<y1; ++i)
+                    for (int j=x0; j<x1; ++j)
+                    {
+                        Rng.seed(this.seed, j, i);
+                        this.iw.writePixel(j, i, this.pixelSamples>1 ? this.samplePixel(nX, nY, j, i, samples)
+                                : this.rayTracer.traceRay(this.constructRay(nX, nY, j, i)));
+                    }
+            }
+            else
+            {
+                this.renderTileSupersampled(x0, x1, y0, y1, nX, nY, borders);
+            }
+
+            //progress is reported once per tile, not per pixel
+            progress.add((long)(x1-x0)*(y1-y0));
+        }
+    }
+
+    /**
+     * Render a tile with adaptive supersampling. The samples on the pixel borders, corners included,
+     * are traced once for the whole tile and shared by neighbouring pixels
+     * @param x0 first column of the tile
+     * @param x1 column after the tile
+     * @param y0 first row of the tile
+     * @param y1 row after the tile
+     * @param nX number of columns (in px resolution)
+     * @param nY number of rows (in px resolution)
+     * @param borders samples of the pixel borders, to be cleared for the tile
+     */
+    private void renderTileSupersampled(int x0, int x1, int y0, int y1, int nX, int nY, BorderSamples borders)
+    {
+        borders.reset(x0, x1, y0, y1);
+        for (int i=y0; i<y1; ++i)
+            for (int j=x0; j<x1; ++j)
+                this.iw.writePixel(j, i, this.supersample(borders, j-0.5, i-0.5, 1,
+                        borders.get(j-0.5, i-0.5), borders.get(j+0.5, i-0.5),
+                        borders.get(j-0.5, i+0.5), borders.get(j+0.5, i+0.5), this.supersamplingDepth));
+    }
+
+    /**
+     * Find the color of a square of the view plane from its traced corners, tracing its center and
+     * dividing it into quadrants while the samples differ by more than the threshold
+     * @param borders samples of the pixel borders of the tile
+     * @param x column coordinate of the top left corner
+     * @param y row coordinate of the top left corner
+     * @param size side of the square, in pixels
+     * @param c00 color at the top left corner
+     * @param c10 color at the top right corner
+     * @param c01 color at the bottom left corner
+     * @param c11 color at the bottom right corner
+     * @param depth amount of divisions still allowed
+     * @return average color of the square
+     */
+    private Color supersample(BorderSamples borders, double x, double y, double size,
+                              Color c00, Color c10, Color c01, Color c11, int depth)
+    {
+        double half=size/2;
+        //never on a pixel border
+        Color center=this.traceSample(borders.nX, borders.nY, x+half, y+half);
+
+        if (depth==1
+                ||center.difference(c00)<=this.supersamplingThreshold
+                &&center.difference(c10)<=this.supersamplingThreshold
+                &&center.difference(c01)<=this.supersamplingThreshold
+                &&center.difference(c11)<=this.supersamplingThreshold)
+        {
+            //the center weighs as much as all the corners, which are shared with the neighbours
+            return c00.add(c10, c01, c11).reduce(8).add(center.reduce(2));
+        }
+
+        Color top=borders.get(x+half, y),
+              bottom=borders.get(x+half, y+size),
+              left=borders.get(x, y+half),
+              right=borders.get(x+size, y+half);
+
+        return this.supersample(borders, x, y, half, c00, top, left, center, depth-1)
+                .add(this.supersample(borders, x+half, y, half, top, c10, center, right, depth-1),
+                     this.supersample(borders, x, y+half, half, left, center, c01, bottom, depth-1),
+                     this.supersample(borders, x+half, y+half, half, center, right, bottom, c11, depth-1))
+                .reduce(4);
+    }
+
+    /**
+     * Find the color of a pixel as the average of a fixed amount of samples spread by the sample generator
+     * @param nX number of columns (in px resolution)
+     * @param nY number of rows (in px resolution)
+     * @param j column index (in px resolution)
+     * @param i row index (in px resolution)
+     * @param samples scratch array for the sample positions, 2 numbers per sample
+     * @return average color of the pixel
+     */
+    private Color samplePixel(int nX, int nY, int j, int i, double[] samples)
+    {
+        this.sampleGenerator.generate(samples, this.pixelSamples);
+
+        Color color=Color.BLACK;
+        for (int s=0; s<this.pixelSamples; ++s)
+            color=color.add(this.traceSample(nX, nY, j-0.5+samples[2*s], i-0.5+samples[2*s+1]));
+        return color.reduce(this.pixelSamples);
+    }
+
+    /**
+     * trace a single ray through a point of the view plane
+     * @param nX number of columns (in px resolution)
+     * @param nY number of rows (in px resolution)
+     * @param x column coordinate
+     * @param y row coordinate
+     * @return color of the ray
+     */
+    private Color traceSample(int nX, int nY, double x, double y)
+    {
+        Rng.seed(this.seed, x, y);
+        return this.rayTracer.traceRay(this.constructRay(nX, nY, x, y));
+    }
+
     /**
      * Print a grid on the image
      * @param interval grid pixel size
@@ -354,4 +796,97 @@ public class Camera {
         return this;
     }
 
+    /**
+     * Samples on the pixel borders of a tile, traced on first use and shared by the pixels on both sides.
+     * A border point is kept by its place on a grid of 2^depth steps per pixel, the finest steps of
+     * adaptive supersampling. Points of divisions deeper than {@link #MAX_STEPS_LOG} are traced every time
+     */
+    private final class BorderSamples {
+        private static final int MAX_STEPS_LOG=10;
+
+        final int nX, nY;
+        private final int steps;
+        private int x0, y0, hLine, vLine;
+        //points on the horizontal borders (corners included) line by line, and on the vertical ones
+        private Color[] horizontal=new Color[0], vertical=new Color[0];
+
+        /**
+         * @param nX number of columns (in px resolution)
+         * @param nY number of rows (in px resolution)
+         * @param depth maximal levels of division
+         */
+        BorderSamples(int nX, int nY, int depth)
+        {
+            this.nX=nX;
+            this.nY=nY;
+            this.steps=1<<Math.min(depth, MAX_STEPS_LOG);
+        }
+
+        /**
+         * forget the samples and get ready for a tile
+         * @param x0 first column of the tile
+         * @param x1 column after the tile
+         * @param y0 first row of the tile
+         * @param y1 row after the tile
+         */
+        void reset(int x0, int x1, int y0, int y1)
+        {
+            this.x0=x0;
+            this.y0=y0;
+            this.hLine=(x1-x0)*this.steps+1;
+            this.vLine=(y1-y0)*this.steps+1;
+            this.horizontal=clear(this.horizontal, (y1-y0+1)*this.hLine);
+            this.vertical=clear(this.vertical, (x1-x0+1)*this.vLine);
+        }
+
+        /**
+         * empty array of at least a given size
+         * @param array array to reuse if it is long enough
+         * @param size the size
+         * @return the array
+         */
+        private static Color[] clear(Color[] array, int size)
+        {
+            if (array.length<size)
+                return new Color[size];
+            Arrays.fill(array, 0, size, null);
+            return array;
+        }
+
+        /**
+         * color of a point of the tile, traced once if it is on a pixel border
+         * @param x column coordinate
+         * @param y row coordinate
+         * @return the color
+         */
+        Color get(double x, double y)
+        {
+            //exact, since the coordinates are halved from whole pixels
+            double gx=(x-this.x0+0.5)*this.steps, gy=(y-this.y0+0.5)*this.steps;
+            if (gx==Math.rint(gx)&&gy==Math.rint(gy))
+            {
+                int ix=(int)gx, iy=(int)gy;
+                if (iy%this.steps==0)
+                    return this.get(this.horizontal, iy/this.steps*this.hLine+ix, x, y);
+                if (ix%this.steps==0)
+                    return this.get(this.vertical, ix/this.steps*this.vLine+iy, x, y);
+            }
+            return traceSample(this.nX, this.nY, x, y);
+        }
+
+        /**
+         * color of a kept point, traced on first use
+         * @param kept the kept colors
+         * @param index index of the point
+         * @param x column coordinate
+         * @param y row coordinate
+         * @return the color
+         */
+        private Color get(Color[] kept, int index, double x, double y)
+        {
+            if (kept[index]==null)
+                kept[index]=traceSample(this.nX, this.nY, x, y);
+            return kept[index];
+        }
+    }
 }
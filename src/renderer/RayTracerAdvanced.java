@@ -5,14 +5,24 @@ import primitives.*;
 import scene.Scene;
 import geometries.Intersectable.GeoPoint;
 
-import java.util.LinkedList;
-import java.util.List;
-
 
 public class RayTracerAdvanced extends RayTracerBasic {
     private int sampleSize=81;
     private int distance=100;
 
+    //0 to always trace the whole beam
+    private int minSamples=0;
+    private double sampleThreshold=0;
+
+    private SampleGenerator sampleGenerator=SamplePattern.STRATIFIED;
+
+    //seed the sample pattern is generated with, so it is the same on every run
+    private static final long PATTERN_SEED=0x5A4D;
+
+    //unit square sample pattern for the rays of a beam around its main ray, rotated randomly for every beam.
+    //a smaller beam takes a prefix of it, which is spread over the square as well
+    private double[] pattern;
+
     /**
      * Init a ray tracer
      * @param scene the scene to draw
@@ -20,16 +30,55 @@ public class RayTracerAdvanced extends RayTracerBasic {
     public RayTracerAdvanced(Scene scene)
     {
         super(scene);
+        this.buildPattern();
+    }
+
+    /**
+     * generate the sample pattern, the random generator of the calling thread is left as it was
+     */
+    private void buildPattern()
+    {
+        int count=Math.max(this.sampleSize-1, 0);
+        double[] pattern=new double[2*count];
+        Rng.runSeeded(PATTERN_SEED, () -> this.sampleGenerator.generate(pattern, count));
+        this.pattern=pattern;
+    }
+
+    @Override
+    public RayTracerAdvanced setTerminationPolicy(TerminationPolicy termination)
+    {
+        super.setTerminationPolicy(termination);
+        return this;
+    }
+
+    @Override
+    public RayTracerAdvanced setDelta(double delta)
+    {
+        super.setDelta(delta);
+        return this;
+    }
+
+    /**
+     * Use the settings of a preset, replacing the termination policy and the sample size
+     * @param preset the preset
+     * @return the ray tracer itself
+     */
+    @Override
+    public RayTracerAdvanced setPreset(TracerPreset preset)
+    {
+        super.setPreset(preset);
+        return this.setSampleSize(preset.getBeamSamples());
     }
 
     /**
      * setter for sample size
-     * @param samp
+     * @param samp amount of rays in a glossy or diffusive beam, the main ray included
      * @return
      */
     public RayTracerAdvanced setSampleSize(int samp)
     {
         sampleSize=samp;
+        this.buildPattern();
         return this;
     }
 
@@ -45,6 +94,36 @@ public class RayTracerAdvanced extends RayTracerBasic {
     }
 
 
+    /**
+     * setter for the generator that spreads the rays of glossy and diffusive beams
+     * @param sampleGenerator the generator, see {@link SamplePattern} for the built in ones
+     * @return the ray tracer itself
+     */
+    public RayTracerAdvanced setSampleGenerator(SampleGenerator sampleGenerator)
+    {
+        this.sampleGenerator=sampleGenerator;
+        this.buildPattern();
+        return this;
+    }
+
+    /**
+     * setter for adaptive sampling of glossy and diffusive beams. The sample size is cut down by the recursion
+     * depth and by the weight of the beam, and tracing stops early once the colors returned agree
+     * @param minSamples rays traced before checking whether the colors agree, and between checks
+     * @param threshold largest standard error of the mean color (per component, 0-255) that is accepted,
+     *                  0 never stops early
+     * @return the ray tracer itself
+     * @throws IllegalArgumentException if the amount of samples or the threshold is negative
+     */
+    public RayTracerAdvanced setAdaptiveSampling(int minSamples, double threshold)
+    {
+        if (minSamples<0||threshold<0)
+            throw new IllegalArgumentException("ERROR, samples and threshold must not be negative");
+        this.minSamples=minSamples;
+        this.sampleThreshold=threshold;
+        return this;
+    }
+
     @Override
     protected Color calcGlobalEffects(Intersectable.GeoPoint gp, Ray inRay, int level, Double3 k)
     {
@@ -53,143 +132,186 @@ public class RayTracerAdvanced extends RayTracerBasic {
 
         // reflection
         Double3 kr = mat.kR, kkr = k.product(kr);
-        if (!kkr.lowerThan(MIN_CALC_COLOR_K)) {
-            Vector n = gp.geometry.getNormal(gp.point);
-            List<Ray> reflectedRays = constructReflectedRays(n, gp, inRay);
-            int superSampleCount = reflectedRays.size();
-
-            for (Ray reflectedRay:reflectedRays) {
-                Intersectable.GeoPoint reflectedPoint = findClosestIntersection(reflectedRay);
-                if (reflectedPoint != null)
-                    color = color.add(calcColor(reflectedPoint, reflectedRay, level - 1, kkr).scale(kr).reduce(superSampleCount));
-            }
+        double fr = follow(level, kkr);
+        if (fr > 0) {
+            Ray reflected = constructReflectedRay(gp.getNormal(), gp.point, inRay);
+            color = survived(traceBeam(reflected, gp.t * mat.nGlossiness, level, kkr, kr), fr); // first contribution
         }
 
         // refraction
         Double3 kt = mat.kT, kkt = k.product(kt);
-        if (!kkt.lowerThan(MIN_CALC_COLOR_K)) {
-            List<Ray>  refractedRays = constructRefractedRays(gp, inRay);
-            int superSampleCount=refractedRays.size();
-
-            for(Ray refractedRay:refractedRays) {
-                Intersectable.GeoPoint refractedPoint = findClosestIntersection(refractedRay);
-                if (refractedPoint != null)
-                    color = color.add(calcColor(refractedPoint, refractedRay, level - 1, kkt).scale(kt).reduce(superSampleCount));
-            }
+        double ft = follow(level, kkt);
+        if (ft > 0) {
+            Ray refracted = constructRefractedRay(gp.point, inRay);
+            color = color.add(survived(traceBeam(refracted, gp.t * mat.nDiffusive, level, kkt, kt), ft));
         }
 
         return color;
     }
 
     /**
-     * method to construct reflected rays
-     * @param n
-     * @param gp
-     * @param inRay
-     * @return list of rays
+     * amount of rays in a beam, the main ray included
+     * @param level recursion level of the beam
+     * @param kk accumulated attenuation of the beam
+     * @return the sample size, cut down by the depth and the weight of the beam when sampling is adaptive
      */
-    protected List<Ray> constructReflectedRays(Vector n, GeoPoint gp, Ray inRay)
+    private int beamSize(int level, Double3 kk)
     {
+        if (this.minSamples==0)
+            return this.sampleSize;
 
-        double side_size = inRay.findDistance(gp.point)*gp.geometry.getMaterial().nGlossiness;
+        //half the rays for every level down, and in proportion to what the beam adds to the pixel
+        double size=this.sampleSize*kk.max()/(1<<(termination.getMaxDepth()-level));
+        return Math.min(this.sampleSize, Math.max(this.minSamples, (int)Math.ceil(size)));
+    }
 
-        Ray reflected=constructReflectedRay(n, gp.point, inRay);
+    /**
+     * trace a beam of rays spread around a main ray and average their colors. When sampling is adaptive,
+     * stops as soon as the colors agree well enough. The rays are made one at a time, never collected
+     * @param main the main ray of the beam
+     * @param side_size side of the square the rays are spread over, at the beam distance
+     * @param level recursion level
+     * @param kk accumulated attenuation of the beam
+     * @param kx attenuation of the material
+     * @return the color the beam adds
+     */
+    private Color traceBeam(Ray main, double side_size, int level, Double3 kk, Double3 kx)
+    {
+        Beam beam = this.beam(main, side_size, level, kk);
+        int count = beam == null ? 1 : beam.size();
+        Color color = Color.BLACK;
 
-        if(Util.isZero(side_size)) {
-            return List.of(reflected);
+        if (this.minSamples == 0 || count <= this.minSamples)
+        {
+            for (int s = 0; s < count; s++) {
+                Ray ray = s == 0 ? main : beam.ray(s);
+                GeoPoint point = findClosestIntersection(ray);
+                if (point != null)
+                    color = color.add(calcColor(point, ray, level - 1, kk).scale(kx).reduce(count));
+            }
+            return color;
         }
 
-        return constructRays(side_size, reflected);
+        //colors of the rays traced so far, a ray that hits nothing is black
+        Color[] samples=new Color[count];
+        int n=0;
+        while (n<count)
+        {
+            Ray ray=n==0 ? main : beam.ray(n);
+            GeoPoint point=findClosestIntersection(ray);
+            samples[n]=point==null ? Color.BLACK : calcColor(point, ray, level-1, kk);
+            color=color.add(samples[n++]);
+
+            if (this.sampleThreshold>0&&n%this.minSamples==0&&n<count&&this.converged(samples, n, color.reduce(n)))
+                break;
+        }
+        return color.reduce(n).scale(kx);
     }
 
     /**
-     * method to construct refracted rays
-     * @param gp
-     * @param inRay
-     * @return list of rays
+     * prepare the rays of a beam around a main ray
+     * @param main the main ray of the beam
+     * @param side_size side of the square the rays are spread over, at the beam distance
+     * @param level recursion level
+     * @param kk accumulated attenuation of the beam
+     * @return the beam, null if the beam is only the main ray
      */
-
-    protected List<Ray> constructRefractedRays(GeoPoint gp, Ray inRay)
+    Beam beam(Ray main, double side_size, int level, Double3 kk)
     {
-        double side_size = inRay.findDistance(gp.point)*gp.geometry.getMaterial().nDiffusive;
-        Ray refracted=constructRefractedRay(gp.point, inRay);
+        return Util.isZero(side_size) || this.sampleSize < 5 ? null
+                : new Beam(main, side_size, this.distance, this.pattern, this.beamSize(level, kk)-1);
+    }
 
-        if(Util.isZero(side_size))
+    /**
+     * check whether the mean of the samples is known well enough
+     * @param samples the samples
+     * @param n amount of samples
+     * @param mean mean of the samples
+     * @return true if the standard error of the mean is within the threshold
+     */
+    private boolean converged(Color[] samples, int n, Color mean)
+    {
+        double variance=0;
+        for (int i=0; i<n; ++i)
         {
-            return List.of(refracted);
+            double d=samples[i].difference(mean);
+            variance+=d*d;
         }
-
-        return constructRays(side_size, refracted);
+        variance/=n-1;
+        return variance/n<=this.sampleThreshold*this.sampleThreshold;
     }
 
-
     /**
-     * construct a stam amount of rays
-     * @param side_size
-     * @param toRay
-     * @return list of rays
+     * Rays of a beam, made on demand from a unit square sample pattern. The pattern is rotated by a random
+     * offset (wrapping around the square) for every beam, so neighbouring beams don't repeat the same structure
      */
-    private List<Ray> constructRays(double side_size, Ray toRay) {
-        List<Ray> rays = new LinkedList<>();
-        rays.add(toRay); // start with original ray
-
-        if(this.sampleSize<5)
+    static final class Beam {
+        private final Point p0;
+        //main direction scaled to the beam distance, and the axes of the square
+        private final double dx, dy, dz, ux, uy, uz, vx, vy, vz;
+        private final double side;
+        private final double shiftX, shiftY;
+        private final double[] pattern;
+        private final int samples;
+
+        /**
+         * prepare a beam
+         * @param main the main ray
+         * @param side side of the square the rays are spread over
+         * @param distance distance of the square from the ray head
+         * @param pattern sample pattern in the unit square
+         * @param samples amount of samples to take from the start of the pattern
+         */
+        Beam(Ray main, double side, double distance, double[] pattern, int samples)
         {
-            return rays;
+            Vector dir=main.getDir();
+            double x=dir.getX(), y=dir.getY(), z=dir.getZ();
+            this.p0=main.getP0();
+            this.dx=x*distance;
+            this.dy=y*distance;
+            this.dz=z*distance;
+
+            //orthonormal basis around the direction, without normalizing or branching on the axis
+            //(Duff et al. 2017, "Building an Orthonormal Basis, Revisited")
+            double sign=Math.copySign(1.0, z);
+            double a=-1/(sign+z), b=x*y*a;
+            this.ux=1+sign*x*x*a;
+            this.uy=sign*b;
+            this.uz=-sign*x;
+            this.vx=b;
+            this.vy=sign+y*y*a;
+            this.vz=-y;
+
+            this.side=side;
+            this.shiftX=Rng.nextDouble();
+            this.shiftY=Rng.nextDouble();
+            this.pattern=pattern;
+            this.samples=samples;
         }
 
-        // Jitter algorithm
-        // Divide into segments (based on sample size), then randomly distribute rays within each segment
-
-        int segments_per_side = (int) Math.round(Math.log10(this.sampleSize)/Math.log10(5));
-
-        int rays_per_segment = Math.round(this.sampleSize / (segments_per_side * segments_per_side));
-
-        // Get coordinate system for our viewplane
-        List<Vector> orthogonal = toRay.getDir().getOrthogonalVectors();
-        Vector xAxis = orthogonal.get(0),
-               yAxis = orthogonal.get(1);
-        Point pC=toRay.getPoint(this.distance);
-
-        // Divide the view plane into segments
-        double segment_size = side_size / segments_per_side;
-
-
-        for (int i = 0; i < segments_per_side; i++) {
-            for (int j = 0; j < segments_per_side; j++) {
-                // Determine the starting point of the current segment
-                double segment_start_x = i * segment_size;
-                double segment_start_y = j * segment_size;
-
-                for (int k = 0; k < rays_per_segment; k++) {
-                    // Calculate the position of the ray within the segment
-                    double ray_x = segment_start_x + (Math.random() * segment_size);
-                    double ray_y = segment_start_y + (Math.random() * segment_size);
-
-
-                    //get the pixel coordinate point
-                    double yI = -(ray_y - ((side_size - 1.0) / 2.0));
-                    double xJ = (ray_x - ((side_size - 1.0) / 2.0));
-                    Point pIJ = pC.addScaled(xAxis, xJ).addScaled(yAxis, yI);
-
-                    //the direction vector
-                    Vector vIJ = pIJ.subtract(toRay.getP0());
-
-
-                    Ray cur = new Ray(toRay.getP0(), vIJ);
-
-
-                    //don't add our original ray twice
-                    if (!cur.equals(toRay)) {
-                        rays.add(cur);
-                    }
-
-                }
-            }
+        /**
+         * amount of rays in the beam
+         * @return the main ray and a ray for every sample of the pattern
+         */
+        int size()
+        {
+            return 1+this.samples;
         }
 
-        return rays;
-
+        /**
+         * make a ray of the beam
+         * @param s index of the ray, from 1 to size-1 (0 is the main ray)
+         * @return the ray
+         */
+        Ray ray(int s)
+        {
+            double u=this.pattern[2*s-2]+this.shiftX, v=this.pattern[2*s-1]+this.shiftY;
+            //centered on the main ray
+            double xJ=((u>=1 ? u-1 : u)-0.5)*this.side, yI=((v>=1 ? v-1 : v)-0.5)*this.side;
+            double  x=this.dx+xJ*this.ux+yI*this.vx,
+                    y=this.dy+xJ*this.uy+yI*this.vy,
+                    z=this.dz+xJ*this.uz+yI*this.vz;
+            return Ray.trusted(this.p0, Vec3.unit(x, y, z));
+        }
     }
-
 }
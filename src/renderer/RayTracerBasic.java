@@ -3,8 +3,8 @@ package renderer;
 import lighting.LightSource;
 import primitives.*;
 import scene.Scene;
-import java.util.List;
 import geometries.Intersectable.GeoPoint;
+import geometries.Intersectable.HitRecord;
 
 
 /**
@@ -17,6 +17,25 @@ public class RayTracerBasic extends RayTracerBase {
     protected static final Double3 INITIAL_K = Double3.ONE;
     protected static final double MIN_CALC_COLOR_K = 0.001;
 
+    // reusable record for closest hit queries, one per rendering thread
+    private static final ThreadLocal<HitRecord> HIT = ThreadLocal.withInitial(HitRecord::new);
+
+    // reusable triads for shading, one set per rendering thread
+    private static final ThreadLocal<Shading> SHADING = ThreadLocal.withInitial(Shading::new);
+
+    /**
+     * scratch space of the local effects: the sum of the light so far, and the direction and intensity of a light
+     */
+    private static final class Shading {
+        final Vec3 color = new Vec3(), l = new Vec3(), intensity = new Vec3();
+    }
+
+    // which secondary rays are followed
+    protected TerminationPolicy termination = new TerminationPolicy();
+
+    // distance shadow rays are moved off the surface, so they don't hit it again
+    protected double delta = DELTA;
+
     /**
      * Init a ray tracer
      * @param scene the scene to draw
@@ -26,6 +45,62 @@ public class RayTracerBasic extends RayTracerBase {
         super(scene);
     }
 
+    /**
+     * Set the policy that decides which secondary rays are followed
+     * @param termination the policy
+     * @return the ray tracer itself
+     */
+    public RayTracerBasic setTerminationPolicy(TerminationPolicy termination)
+    {
+        this.termination = termination;
+        return this;
+    }
+
+    /**
+     * Get the policy that decides which secondary rays are followed, to change its settings
+     * @return the policy
+     */
+    public TerminationPolicy getTerminationPolicy()
+    {
+        return this.termination;
+    }
+
+    /**
+     * Set the distance shadow rays are moved off the surface they leave
+     * @param delta the distance
+     * @return the ray tracer itself
+     * @throws IllegalArgumentException if the distance is negative
+     */
+    public RayTracerBasic setDelta(double delta)
+    {
+        if (delta < 0)
+            throw new IllegalArgumentException("ERROR, delta must not be negative");
+        this.delta = delta;
+        return this;
+    }
+
+    /**
+     * Get the distance shadow rays are moved off the surface they leave
+     * @return the distance
+     */
+    public double getDelta()
+    {
+        return this.delta;
+    }
+
+    /**
+     * Use the settings of a preset, replacing the termination policy.
+     * The Russian roulette depth and the shadow ray offset are not part of a preset and are kept,
+     * the offset fits the scale of the scene rather than the quality
+     * @param preset the preset
+     * @return the ray tracer itself
+     */
+    public RayTracerBasic setPreset(TracerPreset preset)
+    {
+        this.termination = preset.createTerminationPolicy().setRouletteDepth(this.termination.getRouletteDepth());
+        return this;
+    }
+
     @Override
     public Color traceRay(Ray ray)
     {
@@ -50,9 +125,9 @@ public class RayTracerBasic extends RayTracerBase {
      */
     protected GeoPoint findClosestIntersection(Ray ray)
     {
-        List<GeoPoint> points = scene.geometries.findGeoIntersections(ray);
-        GeoPoint closest = ray.findClosestGeoPoint(points); // findClosestGeoPoint knows to handle null
-        return closest;
+        // distance pruned query, farther geometries are skipped once something is hit
+        HitRecord hit = HIT.get().reset(Double.POSITIVE_INFINITY);
+        return scene.geometries.findClosestHit(ray, hit) ? hit.toGeoPoint(ray) : null;
     }
 
     /**
@@ -67,8 +142,9 @@ public class RayTracerBasic extends RayTracerBase {
         if (level <= 0)
             return Color.BLACK; // no additive property
 
-        return calcLocalEffects(gpt, ray, k) // local lighting effects
-                .add(calcGlobalEffects(gpt, ray, level, k)); // global reflection/refraction effects
+        Color local = calcLocalEffects(gpt, ray, k); // local lighting effects
+        Color global = calcGlobalEffects(gpt, ray, level, k); // global reflection/refraction effects
+        return global == Color.BLACK ? local : local.add(global);
     }
 
     /**
@@ -79,7 +155,7 @@ public class RayTracerBasic extends RayTracerBase {
      */
     protected Color calcColor(GeoPoint gp, Ray ray)
     {
-        return calcColor(gp, ray, MAX_CALC_COLOR_LEVEL, INITIAL_K)
+        return calcColor(gp, ray, termination.getMaxDepth(), INITIAL_K)
                 .add(scene.ambient.getIntensity());
     }
 
@@ -91,49 +167,53 @@ public class RayTracerBasic extends RayTracerBase {
      */
     protected Color calcLocalEffects(GeoPoint gp, Ray ray, Double3 k) {
         // start with emission light of the geometry
-        Color color = gp.geometry.getEmission();
+        Color emission = gp.geometry.getEmission();
 
         Vector v = ray.getDir();
-        Vector n = gp.geometry.getNormal(gp.point);
+        Vector n = gp.getNormal();
 
         double nv = Util.alignZero(n.dotProduct(v));
         // looking perpendicular to the geometry, won't see any lighting effects
         if (nv == 0)
-            return color;
+            return emission;
+
+        // the lights are summed up in place, only the final color is a new object
+        Shading shading = SHADING.get();
+        Vec3 color = shading.color.set(emission), l = shading.l, iL = shading.intensity;
+        boolean lit = false;
 
         Material mat = gp.geometry.getMaterial();
         for (LightSource lightSource : scene.lights)
         {
-            Vector l = lightSource.getL(gp.point);
-            double nl = Util.alignZero(n.dotProduct(l));
+            double nl = Util.alignZero(lightSource.getL(gp.point, l).dot(n));
             // make sure light and camera are hitting the geometry from the same side
             if (Util.checkSign(nl, nv))
             {
                 Double3 ktr = transparency(gp, l, n, lightSource, nl);
 
-                if (!ktr.product(k).lowerThan(MIN_CALC_COLOR_K)) {
+                if (!ktr.productLowerThan(k, termination.getMinWeight())) {
 
                     // if (unshaded(gp , l, n, lightSource, nl))
 
                     // apply diffuse and specular effects
-                    Color iL = lightSource.getIntensity(gp.point).scale(ktr);
-                    color = color.add(iL.scale(calcDiffusive(mat, nl)),
-                            iL.scale(calcSpecular(mat, n, l, nl, v)));
+                    lightSource.getIntensity(gp.point, iL).scale(ktr);
+                    color.addScaled(iL, mat.kD, calcDiffusive(nl))
+                            .addScaled(iL, mat.kS, calcSpecular(mat, n, l, nl, v));
+                    lit = true;
                 }
             }
         }
-        return color;
+        return lit ? color.toColor() : emission;
     }
 
     /**
      * helper function that calculates diffusive attribute
-     * @param mat material
      * @param nl dot product of geometry normal and light vector
-     * @return diffusive coefficient
+     * @return diffusive factor, to multiply the kD of the material by
      */
-    protected Double3 calcDiffusive(Material mat, double nl)
+    protected double calcDiffusive(double nl)
     {
-        return mat.kD.scale(Math.abs(nl));
+        return Math.abs(nl);
     }
 
     /**
@@ -143,15 +223,16 @@ public class RayTracerBasic extends RayTracerBase {
      * @param l light vector
      * @param nl n dot l
      * @param v camera ray
-     * @return specular coefficient
+     * @return specular factor, to multiply the kS of the material by
      */
-    protected Double3 calcSpecular(Material mat, Vector n, Vector l, double nl, Vector v)
+    protected double calcSpecular(Material mat, Vector n, Vec3 l, double nl, Vector v)
     {
-        Vector reflect=l.subtract(n.scale(2*nl));
-
-        double spec = Math.pow(Math.max(0, v.scale(-1).dotProduct(reflect)), mat.nShininess);
+        // minus the dot product of v with the reflection of l, without building the reflection
+        double vr = v.getX()*(l.x-2*nl*n.getX())
+                + v.getY()*(l.y-2*nl*n.getY())
+                + v.getZ()*(l.z-2*nl*n.getZ());
 
-        return mat.kS.scale(spec);
+        return Math.pow(Math.max(0, -vr), mat.nShininess);
     }
 
     /**
@@ -163,27 +244,13 @@ public class RayTracerBasic extends RayTracerBase {
      * @param nl
      * @return if the point should be unshaded (effected by the light source) (boolean)
      */
-    protected boolean unshaded(GeoPoint gp , Vector l, Vector n, LightSource light, double nl)
+    protected boolean unshaded(GeoPoint gp , Vec3 l, Vector n, LightSource light, double nl)
     {
-        Vector lightDirection = l.scale(-1); // from point to light source
-
-        Vector epsVector = n.scale(nl < 0 ? DELTA : -DELTA);
-
+        Vector lightDirection = Vector.trusted(-l.x, -l.y, -l.z); // from point to light source, of unit length as l is
+        Ray lightRay = Ray.trusted(gp.point, lightDirection, n, delta);
 
-        Point point = gp.point.add(epsVector);
-        Ray lightRay = new Ray(point, lightDirection);
-
-        List<GeoPoint> intersections = scene.geometries.findGeoIntersections(lightRay, light.getDistance(gp.point));
-
-        if (intersections == null) return true;
-
-        // only keep completely opaque geometries
-        for (GeoPoint intersection: intersections) {
-            // if kT==0, it is opaque, and hence casting shade, ie not unshaded
-            if (intersection.geometry.getMaterial().kT.equals(Double3.ZERO))
-                return false;
-        }
-        return true;
+        // the query stops at the first opaque geometry, which casts shade, ie not unshaded
+        return !scene.geometries.findTransparency(lightRay, light.getDistance(gp.point)).equals(Double3.ZERO);
     }
 
     /**
@@ -200,21 +267,23 @@ public class RayTracerBasic extends RayTracerBase {
 
         // reflection
         Double3 kr = mat.kR, kkr = k.product(kr);
-        if (!kkr.lowerThan(MIN_CALC_COLOR_K)) {
-            Vector n = gp.geometry.getNormal(gp.point);
+        double fr = follow(level, kkr);
+        if (fr > 0) {
+            Vector n = gp.getNormal();
             Ray reflectedRay = constructReflectedRay(n, gp.point, inRay);
             GeoPoint reflectedPoint = findClosestIntersection(reflectedRay);
-            if (reflectedPoint != null)
-                color = color.add(calcColor(reflectedPoint, reflectedRay, level - 1, kkr).scale(kr));
+            if (reflectedPoint != null) // first contribution, nothing to add it to
+                color = survived(calcColor(reflectedPoint, reflectedRay, level - 1, kkr).scale(kr), fr);
         }
 
         // refraction
         Double3 kt = mat.kT, kkt = k.product(kt);
-        if (!kkt.lowerThan(MIN_CALC_COLOR_K)) {
+        double ft = follow(level, kkt);
+        if (ft > 0) {
             Ray refractedRay = constructRefractedRay(gp.point, inRay);
             GeoPoint refractedPoint = findClosestIntersection(refractedRay);
             if (refractedPoint != null)
-                color = color.add(calcColor(refractedPoint, refractedRay, level - 1, kkt).scale(kt));
+                color = color.add(survived(calcColor(refractedPoint, refractedRay, level - 1, kkt).scale(kt), ft));
         }
 
         return color;
@@ -222,6 +291,31 @@ public class RayTracerBasic extends RayTracerBase {
 
 
 
+    /**
+     * Decide whether to follow a secondary ray, by the termination policy
+     * @param level recursion level of the hit the ray leaves
+     * @param kk accumulated attenuation of the ray
+     * @return 0 to drop the ray, otherwise the factor to scale its contribution by (above 1 if it survived roulette)
+     */
+    protected double follow(int level, Double3 kk)
+    {
+        double p = termination.survival(termination.getMaxDepth() - level + 1, kk);
+        if (p == 0 || p == 1)
+            return p;
+        return Rng.nextDouble() < p ? 1 / p : 0;
+    }
+
+    /**
+     * Scale the contribution of a followed ray
+     * @param color the contribution
+     * @param factor factor returned by {@link #follow(int, Double3)}
+     * @return the scaled contribution
+     */
+    protected static Color survived(Color color, double factor)
+    {
+        return factor == 1 ? color : color.scale(factor);
+    }
+
     /**
      * Construct reflected ray from inRay bouncing off point (with normal n)
      * @param n normal to the geometry at point
@@ -231,9 +325,12 @@ public class RayTracerBasic extends RayTracerBase {
      */
     protected Ray constructReflectedRay(Vector n, Point point, Ray inRay)
     {
-        double nl = n.dotProduct(inRay.getDir());
-        Vector reflect = inRay.getDir().subtract(n.scale(2*nl));
-        return new Ray(point, reflect);
+        Vector v = inRay.getDir();
+        double nl = n.dotProduct(v);
+        // grazing rays (nl==0) go on unchanged, the reflection of a unit vector is never zero
+        Vector reflect = Vector.trusted(v.getX()-2*nl*n.getX(), v.getY()-2*nl*n.getY(), v.getZ()-2*nl*n.getZ());
+        // reflecting keeps the unit length, no need to normalize again
+        return Ray.trusted(point, reflect);
     }
 
     /**
@@ -245,7 +342,7 @@ public class RayTracerBasic extends RayTracerBase {
      */
     protected Ray constructRefractedRay(Point point, Ray inRay)
     {
-        return new Ray(point, inRay.getDir());
+        return Ray.trusted(point, inRay.getDir());
     }
 
     /**
@@ -257,28 +354,12 @@ public class RayTracerBasic extends RayTracerBase {
      * @param nl
      * @return Double3 transparency
      */
-    protected Double3 transparency(GeoPoint gp , Vector l, Vector n, LightSource light, double nl)
+    protected Double3 transparency(GeoPoint gp , Vec3 l, Vector n, LightSource light, double nl)
     {
-        Vector lightDirection = l.scale(-1); // from point to light source
-
-        Vector epsVector = n.scale(nl < 0 ? DELTA : -DELTA);
-
-
-        Point point = gp.point.add(epsVector);
-        Ray lightRay = new Ray(point, lightDirection);
-
-        List<GeoPoint> intersections = scene.geometries.findGeoIntersections(lightRay, light.getDistance(gp.point));
-
-        Double3 ktr=Double3.ONE;
-        if (intersections == null) return ktr;
-
-
-        // get the cumulative (multiplicative) transparency coefficient
-        for (GeoPoint intersection: intersections) {
-             ktr = ktr.product(intersection.geometry.getMaterial().kT);
-        }
-
-        return ktr;
+        Vector lightDirection = Vector.trusted(-l.x, -l.y, -l.z); // from point to light source, of unit length as l is
+        Ray lightRay = Ray.trusted(gp.point, lightDirection, n, delta);
 
+        // get the cumulative (multiplicative) transparency coefficient, without collecting the intersections
+        return scene.geometries.findTransparency(lightRay, light.getDistance(gp.point));
     }
 }
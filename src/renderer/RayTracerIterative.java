@@ -0,0 +1,173 @@
+package renderer;
+
+import geometries.Intersectable.GeoPoint;
+import primitives.*;
+import scene.Scene;
+
+import java.util.Arrays;
+
+/**
+ * Ray tracer that follows reflections and refractions with an explicit work stack instead of recursion.
+ * Every pending ray is kept with its recursion level, its accumulated attenuation (for the cutoffs) and
+ * its weight in the pixel color, which is the attenuation divided by the sizes of the beams on its way.
+ * The color of a pixel is then the sum of the local effects of every hit, scaled by the weight of its ray.
+ * The stack is reused by every ray traced on the same thread.
+ * Beams are traced in full: the early stop of adaptive sampling needs the colors of whole subtrees,
+ * so only its cut of the beam size by depth and weight applies here.
+ * The colors are those of {@link RayTracerAdvanced} as long as no more than one beam is spread on the way of a
+ * camera ray. Otherwise the beams draw their random rotations in another order, and the colors differ by sampling noise
+ */
+public class RayTracerIterative extends RayTracerAdvanced {
+
+    // pending rays, one stack per rendering thread
+    private static final ThreadLocal<PathStack> STACK = ThreadLocal.withInitial(PathStack::new);
+
+    /**
+     * Init a ray tracer
+     * @param scene the scene to draw
+     */
+    public RayTracerIterative(Scene scene)
+    {
+        super(scene);
+    }
+
+    @Override
+    public Color traceRay(Ray ray)
+    {
+        GeoPoint closest = findClosestIntersection(ray);
+
+        // if no intersection points
+        if (closest == null)
+        {
+            return this.scene.background;
+        }
+
+        // drop whatever a trace that threw left on the stack of this thread
+        PathStack stack = STACK.get();
+        stack.clear();
+        Color color = this.scene.ambient.getIntensity();
+        GeoPoint gp = closest;
+        stack.push(ray, termination.getMaxDepth(), INITIAL_K, Double3.ONE);
+
+        while (stack.size > 0)
+        {
+            int top = --stack.size;
+            Ray cur = stack.rays[top];
+            int level = stack.levels[top];
+            Double3 k = stack.ks[top], w = stack.weights[top];
+            stack.rays[top] = null;
+
+            // the camera ray was already intersected
+            if (gp == null)
+            {
+                gp = findClosestIntersection(cur);
+                if (gp == null)
+                    continue;
+            }
+
+            color = color.add(calcLocalEffects(gp, cur, k).scale(w));
+
+            Material mat = gp.geometry.getMaterial();
+
+            // reflection
+            Double3 kr = mat.kR, kkr = k.product(kr);
+            double fr = follow(level, kkr);
+            if (fr > 0) {
+                Ray reflected = constructReflectedRay(gp.getNormal(), gp.point, cur);
+                this.pushBeam(stack, reflected, gp.t * mat.nGlossiness, level, kkr, survived(w.product(kr), fr));
+            }
+
+            // refraction
+            Double3 kt = mat.kT, kkt = k.product(kt);
+            double ft = follow(level, kkt);
+            if (ft > 0) {
+                Ray refracted = constructRefractedRay(gp.point, cur);
+                this.pushBeam(stack, refracted, gp.t * mat.nDiffusive, level, kkt, survived(w.product(kt), ft));
+            }
+            gp = null;
+        }
+
+        return color;
+    }
+
+    /**
+     * Scale the weight of a followed ray
+     * @param weight the weight
+     * @param factor factor returned by {@link #follow(int, Double3)}
+     * @return the scaled weight
+     */
+    private static Double3 survived(Double3 weight, double factor)
+    {
+        return factor == 1 ? weight : weight.scale(factor);
+    }
+
+    /**
+     * push the rays of a beam, sharing the weight of the beam between them
+     * @param stack the work stack
+     * @param main the main ray of the beam
+     * @param side_size side of the square the rays are spread over
+     * @param level recursion level of the ray the beam leaves
+     * @param kk accumulated attenuation of the beam
+     * @param weight weight of the whole beam in the pixel color
+     */
+    private void pushBeam(PathStack stack, Ray main, double side_size, int level, Double3 kk, Double3 weight)
+    {
+        Beam beam = this.beam(main, side_size, level, kk);
+        if (beam == null)
+        {
+            stack.push(main, level - 1, kk, weight);
+            return;
+        }
+
+        int count = beam.size();
+        Double3 w = weight.reduce(count);
+        stack.push(main, level - 1, kk, w);
+        for (int s = 1; s < count; ++s)
+            stack.push(beam.ray(s), level - 1, kk, w);
+    }
+
+    /**
+     * Stack of pending rays, kept as parallel arrays that grow as needed and are never shrunk
+     */
+    private static final class PathStack {
+        Ray[] rays = new Ray[64];
+        int[] levels = new int[64];
+        Double3[] ks = new Double3[64];
+        Double3[] weights = new Double3[64];
+        int size = 0;
+
+        /**
+         * add a pending ray
+         * @param ray the ray
+         * @param level recursion level of the ray
+         * @param k accumulated attenuation
+         * @param weight weight in the pixel color
+         */
+        void push(Ray ray, int level, Double3 k, Double3 weight)
+        {
+            if (this.size == this.rays.length)
+            {
+                int capacity = 2 * this.size;
+                this.rays = Arrays.copyOf(this.rays, capacity);
+                this.levels = Arrays.copyOf(this.levels, capacity);
+                this.ks = Arrays.copyOf(this.ks, capacity);
+                this.weights = Arrays.copyOf(this.weights, capacity);
+            }
+            this.rays[this.size] = ray;
+            this.levels[this.size] = level;
+            this.ks[this.size] = k;
+            this.weights[this.size++] = weight;
+        }
+
+        /**
+         * drop all the pending rays
+         */
+        void clear()
+        {
+            Arrays.fill(this.rays, 0, this.size, null);
+            Arrays.fill(this.ks, 0, this.size, null);
+            Arrays.fill(this.weights, 0, this.size, null);
+            this.size = 0;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package renderer;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Progress of a single render. Workers add the pixels they finish (once per tile) to a
+ * {@link LongAdder}, which never makes them wait for each other, and a listener is polled
+ * from a thread of its own at a fixed interval, so nothing is printed from the render threads.
+ */
+public class RenderProgress {
+    /**
+     * Receives the progress of a render
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * called every polling interval while rendering, and once more when the render is over
+         * @param progress the progress of the render
+         */
+        void progress(RenderProgress progress);
+    }
+
+    /**
+     * listener that prints the percentage done to the console, overwriting the same line
+     */
+    public static final Listener CONSOLE=progress -> {
+        if (progress.isDone())
+            System.out.println("100.0%");
+        else
+            System.out.printf("%5.1f%%\r", 100*progress.getFraction());
+    };
+
+    /**
+     * listener that ignores the progress
+     */
+    public static final Listener NONE=progress -> {};
+
+    private final long total;
+    private final LongAdder done=new LongAdder();
+    private final long start=System.nanoTime();
+
+    /**
+     * start tracking a render
+     * @param total amount of pixels to render
+     */
+    public RenderProgress(long total)
+    {
+        this.total=total;
+    }
+
+    /**
+     * create a listener that writes the percentage done to a logger
+     * @param logger the logger
+     * @return the listener
+     */
+    public static Listener logger(Logger logger)
+    {
+        return progress -> logger.log(Level.INFO, "rendered {0}%, {1} ms",
+                new Object[] { String.format("%.1f", 100*progress.getFraction()), progress.getElapsedMillis() });
+    }
+
+    /**
+     * report finished pixels, safe to call from any amount of threads
+     * @param pixels amount of pixels finished
+     */
+    public void add(long pixels)
+    {
+        this.done.add(pixels);
+    }
+
+    /**
+     * getter for the amount of pixels finished
+     * @return pixels finished
+     */
+    public long getDone()
+    {
+        return this.done.sum();
+    }
+
+    /**
+     * getter for the amount of pixels to render
+     * @return total amount of pixels
+     */
+    public long getTotal()
+    {
+        return this.total;
+    }
+
+    /**
+     * part of the render that is finished
+     * @return number between 0 and 1
+     */
+    public double getFraction()
+    {
+        return this.total==0 ? 1 : (double)this.getDone()/this.total;
+    }
+
+    /**
+     * whether all pixels are finished
+     * @return true if the render is done
+     */
+    public boolean isDone()
+    {
+        return this.getDone()>=this.total;
+    }
+
+    /**
+     * time since the render started
+     * @return elapsed milliseconds
+     */
+    public long getElapsedMillis()
+    {
+        return (System.nanoTime()-this.start)/1000000;
+    }
+
+    /**
+     * poll a listener at a fixed interval until the returned thread is interrupted,
+     * then call it one last time
+     * @param listener the listener
+     * @param interval time between calls, in milliseconds
+     * @return the polling thread, a daemon so it never keeps the JVM alive
+     */
+    Thread poll(Listener listener, long interval)
+    {
+        Thread poller=new Thread(() -> {
+            try
+            {
+                while (!this.isDone())
+                {
+                    listener.progress(this);
+                    Thread.sleep(interval);
+                }
+            }
+            catch (InterruptedException ignore)
+            {
+                //the render is over
+            }
+            listener.progress(this);
+        }, "render-progress");
+        poller.setDaemon(true);
+        poller.start();
+        return poller;
+    }
+}
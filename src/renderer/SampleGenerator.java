@@ -0,0 +1,17 @@
+package renderer;
+
+/**
+ * Source of sample positions in the unit square, for spreading beam rays and pixel samples.
+ * Implementations draw any randomization they need from {@link primitives.Rng}, so the samples
+ * follow the render seed. See {@link SamplePattern} for the built in generators
+ */
+@FunctionalInterface
+public interface SampleGenerator {
+    /**
+     * generate sample positions
+     * @param samples array to write the positions into, x and y of every sample one after the other,
+     *                at least 2*count long. All numbers are in range 0 (included) to 1 (excluded)
+     * @param count amount of samples to generate
+     */
+    void generate(double[] samples, int count);
+}
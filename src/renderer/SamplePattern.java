@@ -0,0 +1,184 @@
+package renderer;
+
+import primitives.Rng;
+
+import java.util.SplittableRandom;
+
+/**
+ * Built in sample generators. All of them spread any prefix of their samples over the whole square,
+ * so a sampler that stops early still covers it evenly, and every call is randomized differently
+ */
+public enum SamplePattern implements SampleGenerator {
+    /**
+     * jittered grid fitted to any amount of samples, cells taken in a scattered order
+     */
+    STRATIFIED {
+        @Override
+        public void generate(double[] samples, int count)
+        {
+            if (count==0)
+                return;
+            int cols=(int)Math.ceil(Math.sqrt(count)), rows=(count+cols-1)/cols;
+
+            //step through the cells by about count/golden ratio, which keeps every prefix scattered
+            int step=(int)Math.round(count*0.6180339887498949);
+            while (gcd(step, count)!=1)
+                ++step;
+
+            for (int s=0, cell=0; s<count; ++s, cell=(cell+step)%count)
+            {
+                int row=cell/cols, col=cell%cols;
+                //the cells of a last, partial row are stretched to fill it
+                int inRow=row==rows-1 ? count-row*cols : cols;
+                samples[2*s]=(col+Rng.nextDouble())/inRow;
+                samples[2*s+1]=(row+Rng.nextDouble())/rows;
+            }
+        }
+    },
+
+    /**
+     * Halton sequence in bases 2 and 3, randomly shifted (Cranley-Patterson rotation)
+     */
+    HALTON {
+        @Override
+        public void generate(double[] samples, int count)
+        {
+            double shiftX=Rng.nextDouble(), shiftY=Rng.nextDouble();
+            for (int s=0; s<count; ++s)
+            {
+                samples[2*s]=wrap(radicalInverse(s, 2)+shiftX);
+                samples[2*s+1]=wrap(radicalInverse(s, 3)+shiftY);
+            }
+        }
+    },
+
+    /**
+     * first two dimensions of the Sobol sequence, scrambled by a random digital shift
+     */
+    SOBOL {
+        @Override
+        public void generate(double[] samples, int count)
+        {
+            int shiftX=(int)Rng.nextLong(), shiftY=(int)Rng.nextLong();
+            for (int s=0; s<count; ++s)
+            {
+                int x=0, y=0;
+                //direction numbers: 1/2^k for the first dimension, v(k+1)=v(k)^v(k)/2 for the second
+                for (int bit=0, v=0x80000000; (s>>>bit)!=0; ++bit, v^=v>>>1)
+                {
+                    if (((s>>>bit)&1)!=0)
+                    {
+                        x^=0x80000000>>>bit;
+                        y^=v;
+                    }
+                }
+                samples[2*s]=((x^shiftX)&0xFFFFFFFFL)*0x1.0p-32;
+                samples[2*s+1]=((y^shiftY)&0xFFFFFFFFL)*0x1.0p-32;
+            }
+        }
+    },
+
+    /**
+     * precomputed blue noise table (best candidate), randomly shifted over the torus
+     */
+    BLUE_NOISE {
+        @Override
+        public void generate(double[] samples, int count)
+        {
+            double[] table=BlueNoise.TABLE;
+            int size=table.length/2;
+            double shiftX=0, shiftY=0;
+            for (int s=0; s<count; ++s)
+            {
+                //a new shift for every pass over the table
+                if (s%size==0)
+                {
+                    shiftX=Rng.nextDouble();
+                    shiftY=Rng.nextDouble();
+                }
+                samples[2*s]=wrap(table[2*(s%size)]+shiftX);
+                samples[2*s+1]=wrap(table[2*(s%size)+1]+shiftY);
+            }
+        }
+    };
+
+    /**
+     * greatest common divisor
+     * @param a first number
+     * @param b second number
+     * @return the greatest common divisor
+     */
+    private static int gcd(int a, int b)
+    {
+        return b==0 ? a : gcd(b, a%b);
+    }
+
+    /**
+     * wrap a number into range 0 to 1
+     * @param d number in range 0 to 2
+     * @return the fractional part of the number
+     */
+    private static double wrap(double d)
+    {
+        return d>=1 ? d-1 : d;
+    }
+
+    /**
+     * mirror the digits of a number around the radix point
+     * @param i the number
+     * @param base base of the digits
+     * @return the radical inverse, in range 0 to 1
+     */
+    private static double radicalInverse(int i, int base)
+    {
+        double res=0, f=1.0/base;
+        for (; i>0; i/=base, f/=base)
+            res+=f*(i%base);
+        return res;
+    }
+
+    /**
+     * blue noise table, built on first use
+     */
+    private static final class BlueNoise {
+        private static final int SIZE=1024;
+        private static final int CANDIDATES=16;
+
+        //positions in the order they were picked, so every prefix is blue noise as well
+        static final double[] TABLE=build();
+
+        /**
+         * Mitchell's best candidate: every new point is the candidate farthest from all points so far,
+         * distances measured over the torus so the table tiles
+         * @return the table
+         */
+        private static double[] build()
+        {
+            SplittableRandom random=new SplittableRandom(0x5EED);
+            double[] table=new double[2*SIZE];
+            for (int p=0; p<SIZE; ++p)
+            {
+                double best=-1;
+                for (int c=0; c<CANDIDATES; ++c)
+                {
+                    double x=random.nextDouble(), y=random.nextDouble();
+                    double nearest=Double.POSITIVE_INFINITY;
+                    for (int q=0; q<p; ++q)
+                    {
+                        double dx=Math.abs(x-table[2*q]), dy=Math.abs(y-table[2*q+1]);
+                        dx=Math.min(dx, 1-dx);
+                        dy=Math.min(dy, 1-dy);
+                        nearest=Math.min(nearest, dx*dx+dy*dy);
+                    }
+                    if (nearest>best)
+                    {
+                        best=nearest;
+                        table[2*p]=x;
+                        table[2*p+1]=y;
+                    }
+                }
+            }
+            return table;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package renderer;
+
+import primitives.Double3;
+
+/**
+ * Decides which secondary (reflected and refracted) rays a tracer follows.
+ * A ray is dropped beyond the maximal depth or when its accumulated attenuation is too weak to be seen.
+ * Past the roulette depth, a ray is followed only with a chance that matches its attenuation, and a ray that
+ * survives has its contribution raised by the inverse of that chance (Russian roulette), which keeps the image
+ * unbiased while weak paths mostly stop early
+ */
+public class TerminationPolicy {
+    private int maxDepth=RayTracerBasic.MAX_CALC_COLOR_LEVEL;
+    private double minWeight=RayTracerBasic.MIN_CALC_COLOR_K;
+
+    //0 for no roulette
+    private int rouletteDepth=0;
+
+    /**
+     * setter for the maximal depth
+     * @param maxDepth amount of hits along a path that are colored, 1 for camera rays only
+     * @return the policy itself
+     * @throws IllegalArgumentException if the depth is not positive
+     */
+    public TerminationPolicy setMaxDepth(int maxDepth)
+    {
+        if (maxDepth<=0)
+            throw new IllegalArgumentException("ERROR, depth must be positive");
+        this.maxDepth=maxDepth;
+        return this;
+    }
+
+    /**
+     * setter for the minimal weight
+     * @param minWeight rays whose attenuation is below this in every component are dropped
+     * @return the policy itself
+     * @throws IllegalArgumentException if the weight is negative
+     */
+    public TerminationPolicy setMinWeight(double minWeight)
+    {
+        if (minWeight<0)
+            throw new IllegalArgumentException("ERROR, weight must not be negative");
+        this.minWeight=minWeight;
+        return this;
+    }
+
+    /**
+     * setter for the depth from which Russian roulette is played
+     * @param rouletteDepth depth of the first rays that may be dropped by chance (1 for the first bounce),
+     *                      0 to never play
+     * @return the policy itself
+     * @throws IllegalArgumentException if the depth is negative
+     */
+    public TerminationPolicy setRouletteDepth(int rouletteDepth)
+    {
+        if (rouletteDepth<0)
+            throw new IllegalArgumentException("ERROR, depth must not be negative");
+        this.rouletteDepth=rouletteDepth;
+        return this;
+    }
+
+    /**
+     * getter for the maximal depth
+     * @return amount of hits along a path that are colored
+     */
+    public int getMaxDepth()
+    {
+        return this.maxDepth;
+    }
+
+    /**
+     * getter for the minimal weight
+     * @return attenuation below which rays are dropped
+     */
+    public double getMinWeight()
+    {
+        return this.minWeight;
+    }
+
+    /**
+     * getter for the roulette depth
+     * @return depth of the first rays that may be dropped by chance, 0 if roulette is not played
+     */
+    public int getRouletteDepth()
+    {
+        return this.rouletteDepth;
+    }
+
+    /**
+     * chance to follow a secondary ray
+     * @param depth depth of the ray, 1 for rays leaving the hit of a camera ray
+     * @param k accumulated attenuation of the ray
+     * @return 0 to drop the ray, 1 to always follow it, anything between is the chance to follow it
+     */
+    public double survival(int depth, Double3 k)
+    {
+        if (depth>=this.maxDepth||k.lowerThan(this.minWeight))
+            return 0;
+        if (this.rouletteDepth==0||depth<this.rouletteDepth)
+            return 1;
+        return Math.min(1, k.max());
+    }
+}
@@ -0,0 +1,212 @@
+package renderer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Splits an image into square tiles and hands them out to render workers one at a time.
+ * Workers pull tiles until none are left, so a slow tile never holds back the others,
+ * and pixels of one tile are rendered together, row by row, for better locality.
+ */
+public class TileScheduler {
+    /**
+     * Order in which the tiles are handed out
+     */
+    public enum Order {
+        /**
+         * rows of tiles from top to bottom, each row from left to right
+         */
+        ROW_MAJOR,
+
+        /**
+         * from the center of the image outwards, so the interesting part is done first
+         */
+        SPIRAL,
+
+        /**
+         * along a Hilbert curve, so consecutive tiles are always neighbours
+         */
+        HILBERT
+    }
+
+    private final int nX, nY;
+    private final int tileSize;
+    private final int tilesX, tilesY;
+
+    //tile indices (row*tilesX+column) in the order they are handed out
+    private final int[] tiles;
+    private final AtomicInteger next=new AtomicInteger();
+
+    /**
+     * prepare the tiles of an image
+     * @param nX amount of pixel columns
+     * @param nY amount of pixel rows
+     * @param tileSize width and height of a tile in pixels, tiles at the right and bottom edges may be smaller
+     * @param order order to hand out the tiles in
+     * @throws IllegalArgumentException if the image or the tile size is not positive
+     */
+    public TileScheduler(int nX, int nY, int tileSize, Order order)
+    {
+        if (nX<=0||nY<=0)
+            throw new IllegalArgumentException("ERROR, image must have pixels");
+        if (tileSize<=0)
+            throw new IllegalArgumentException("ERROR, tile size must be positive");
+
+        this.nX=nX;
+        this.nY=nY;
+        this.tileSize=tileSize;
+        this.tilesX=(nX+tileSize-1)/tileSize;
+        this.tilesY=(nY+tileSize-1)/tileSize;
+
+        this.tiles=switch (order)
+        {
+            case ROW_MAJOR -> this.rowMajor();
+            case SPIRAL -> this.spiral();
+            case HILBERT -> this.hilbert();
+        };
+    }
+
+    /**
+     * getter for the amount of tiles
+     * @return amount of tiles
+     */
+    public int getTileCount()
+    {
+        return this.tiles.length;
+    }
+
+    /**
+     * take the next tile to render, safe to call from any amount of threads
+     * @return index of the tile, -1 if all tiles were handed out
+     */
+    public int nextTile()
+    {
+        int i=this.next.getAndIncrement();
+        return i<this.tiles.length ? this.tiles[i] : -1;
+    }
+
+    /**
+     * first pixel column of a tile
+     * @param tile index of the tile
+     * @return column of the left edge
+     */
+    public int getX0(int tile)
+    {
+        return (tile%this.tilesX)*this.tileSize;
+    }
+
+    /**
+     * first pixel row of a tile
+     * @param tile index of the tile
+     * @return row of the top edge
+     */
+    public int getY0(int tile)
+    {
+        return (tile/this.tilesX)*this.tileSize;
+    }
+
+    /**
+     * pixel column after the last one of a tile
+     * @param tile index of the tile
+     * @return column after the right edge
+     */
+    public int getX1(int tile)
+    {
+        return Math.min(this.getX0(tile)+this.tileSize, this.nX);
+    }
+
+    /**
+     * pixel row after the last one of a tile
+     * @param tile index of the tile
+     * @return row after the bottom edge
+     */
+    public int getY1(int tile)
+    {
+        return Math.min(this.getY0(tile)+this.tileSize, this.nY);
+    }
+
+    /**
+     * @return all tiles in row major order
+     */
+    private int[] rowMajor()
+    {
+        int[] res=new int[this.tilesX*this.tilesY];
+        for (int i=0; i<res.length; ++i)
+            res[i]=i;
+        return res;
+    }
+
+    /**
+     * walk a square spiral out of the center tile, skipping the steps that leave the image
+     * @return all tiles in spiral order
+     */
+    private int[] spiral()
+    {
+        int[] res=new int[this.tilesX*this.tilesY];
+        int x=(this.tilesX-1)/2, y=(this.tilesY-1)/2;
+        int dx=1, dy=0;
+        int count=0;
+
+        //legs of the spiral grow by one every second turn: 1,1,2,2,3,3...
+        for (int leg=1; count<res.length; ++leg)
+        {
+            for (int turn=0; turn<2; ++turn)
+            {
+                for (int step=0; step<leg; ++step)
+                {
+                    if (x>=0&&x<this.tilesX&&y>=0&&y<this.tilesY)
+                        res[count++]=y*this.tilesX+x;
+                    x+=dx;
+                    y+=dy;
+                }
+                int tmp=dx;
+                dx=-dy;
+                dy=tmp;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * walk a Hilbert curve over the smallest power of two square covering the tiles,
+     * skipping the cells outside the image
+     * @return all tiles in Hilbert curve order
+     */
+    private int[] hilbert()
+    {
+        int[] res=new int[this.tilesX*this.tilesY];
+        int side=Integer.highestOneBit(Math.max(this.tilesX, this.tilesY)-1)<<1;
+        if (side==0)
+            side=1;
+
+        int count=0;
+        for (long d=0; count<res.length; ++d)
+        {
+            //convert the distance along the curve into cell coordinates
+            int x=0, y=0;
+            long t=d;
+            for (int s=1; s<side; s<<=1)
+            {
+                int rx=(int)(1&(t/2));
+                int ry=(int)(1&(t^rx));
+                if (ry==0)
+                {
+                    if (rx==1)
+                    {
+                        x=s-1-x;
+                        y=s-1-y;
+                    }
+                    int tmp=x;
+                    x=y;
+                    y=tmp;
+                }
+                x+=s*rx;
+                y+=s*ry;
+                t/=4;
+            }
+
+            if (x<this.tilesX&&y<this.tilesY)
+                res[count++]=y*this.tilesX+x;
+        }
+        return res;
+    }
+}
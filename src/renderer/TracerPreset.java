@@ -0,0 +1,50 @@
+package renderer;
+
+/**
+ * Ready made sets of tracer settings, trading quality for speed
+ */
+public enum TracerPreset {
+    /**
+     * quick look at the scene: two bounces, coarse cutoff and small glossy beams
+     */
+    PREVIEW(2, 0.01, 9),
+
+    /**
+     * delivery quality: the full default depth, cutoff and beam size
+     */
+    FINAL(RayTracerBasic.MAX_CALC_COLOR_LEVEL, RayTracerBasic.MIN_CALC_COLOR_K, 81);
+
+    private final int maxDepth;
+    private final double minWeight;
+    private final int beamSamples;
+
+    /**
+     * @param maxDepth amount of hits along a path that are colored
+     * @param minWeight attenuation below which rays are dropped
+     * @param beamSamples rays in a glossy or diffusive beam
+     */
+    TracerPreset(int maxDepth, double minWeight, int beamSamples)
+    {
+        this.maxDepth=maxDepth;
+        this.minWeight=minWeight;
+        this.beamSamples=beamSamples;
+    }
+
+    /**
+     * create the termination policy of the preset
+     * @return a new policy
+     */
+    public TerminationPolicy createTerminationPolicy()
+    {
+        return new TerminationPolicy().setMaxDepth(this.maxDepth).setMinWeight(this.minWeight);
+    }
+
+    /**
+     * getter for the beam size
+     * @return rays in a glossy or diffusive beam
+     */
+    public int getBeamSamples()
+    {
+        return this.beamSamples;
+    }
+}
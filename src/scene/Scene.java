@@ -2,6 +2,7 @@ package scene;
 
 
 import lighting.AmbientLight;
+import geometries.BVHQuality;
 import geometries.Geometries;
 import geometries.Intersectable;
 import lighting.LightSource;
@@ -56,6 +57,18 @@ public class Scene {
         return this;
     }
 
+    /**
+     * accelerate the scene with a bounding volume hierarchy, built once rendering starts
+     * @param quality BVHQuality.BINNED_SAH for quick previews, BVHQuality.FULL_SAH for final renders,
+     *                null for no hierarchy
+     * @return the scene itself
+     */
+    public Scene setBVH(BVHQuality quality)
+    {
+        this.geometries.setBVH(quality);
+        return this;
+    }
+
     /**
      * add lights to a scene
      * @param lights
@@ -37,4 +37,111 @@ class GeometriesTest {
 
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Test bounding volume hierarchy for {@link geometries.Geometries#buildBVH()}
+     */
+    @Test
+    void testBuildBVH() {
+        Vector v1 =new Vector(0,0,1);
+        Geometries flat=new Geometries(), bvh=new Geometries();
+        for (int i=0; i<10; ++i)
+        {
+            Intersectable sphere=new Sphere(new Point(3*i,0,5), 1d);
+            flat.add(sphere);
+            bvh.add(sphere);
+        }
+        Intersectable plane=new Plane(new Point (0,0,1), v1);
+        flat.add(plane);
+        bvh.add(plane);
+        bvh.buildBVH();
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: Intersects a sphere and the plane (3 points)
+        assertEquals(flat.findIntersections(new Ray(new Point(9,0,0), v1)).size(), bvh.findIntersections(new Ray(new Point(9,0,0), v1)).size(), "ERROR, hierarchy returned wrong number of points");
+        assertEquals(3, bvh.findIntersections(new Ray(new Point(9,0,0), v1)).size(), "ERROR, hierarchy returned wrong number of points");
+
+        //TC02: Passes through all the spheres (20 points)
+        assertEquals(20, bvh.findIntersections(new Ray(new Point(-5,0,5), new Vector(1,0,0))).size(), "ERROR, hierarchy returned wrong number of points");
+
+        // =============== Boundary Values Tests ==================
+        //TC03: Misses all the spheres, only the unbounded plane is hit (1 point)
+        assertEquals(1, bvh.findIntersections(new Ray(new Point(1.5,0,0), v1)).size(), "ERROR, unbounded shape was not tested");
+
+        //TC04: Spheres are beyond the max distance (1 point)
+        assertEquals(1, bvh.findGeoIntersections(new Ray(new Point(9,0,0), v1), 2).size(), "ERROR, returned points beyond max distance");
+
+        //TC05: All build qualities find the same points
+        for (BVHQuality quality: BVHQuality.values())
+        {
+            bvh.buildBVH(quality);
+            assertEquals(20, bvh.findIntersections(new Ray(new Point(-5,0,5), new Vector(1,0,0))).size(), "ERROR, " + quality + " hierarchy returned wrong number of points");
+            assertEquals(3, bvh.findIntersections(new Ray(new Point(9,0,0), v1)).size(), "ERROR, " + quality + " hierarchy returned wrong number of points");
+        }
+
+        //TC06: Hierarchy is rebuilt after adding a shape (5 points)
+        bvh.setBVH(BVHQuality.FULL_SAH).add(new Sphere(new Point(9,0,10), 1d));
+        assertEquals(5, bvh.findIntersections(new Ray(new Point(9,0,0), v1)).size(), "ERROR, added shape is missing from the hierarchy");
+    }
+
+    /**
+     * Test shadow query for {@link geometries.Intersectable#findTransparency(Ray, double)}
+     */
+    @Test
+    void testFindTransparency() {
+        Vector v1 =new Vector(0,0,1);
+        Geometry glass=new Sphere(new Point(0,0,5), 1d).setMaterial(new Material().setKt(0.5)),
+                 wall=new Plane(new Point(0,0,10), v1);
+        Geometries geo=new Geometries(glass, wall);
+        Ray ray=new Ray(new Point(0,0,0), v1);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: Passes through both sides of the transparent sphere
+        assertEquals(new Double3(0.25), geo.findTransparency(ray, 8), "ERROR, wrong transparency through the sphere");
+
+        //TC02: Blocked by the opaque plane
+        assertEquals(Double3.ZERO, geo.findTransparency(ray, 20), "ERROR, opaque plane should block the ray");
+
+        //TC03: Same results with a hierarchy
+        geo.buildBVH();
+        assertEquals(new Double3(0.25), geo.findTransparency(ray, 8), "ERROR, wrong transparency through the hierarchy");
+        assertEquals(Double3.ZERO, geo.findTransparency(ray, 20), "ERROR, opaque plane should block the ray");
+
+        // =============== Boundary Values Tests ==================
+        //TC04: Nothing along the ray
+        assertEquals(Double3.ONE, geo.findTransparency(new Ray(new Point(0,0,0), v1.scale(-1)), 20), "ERROR, nothing should block the ray");
+    }
+
+    /**
+     * Test closest hit query for {@link geometries.Intersectable#findClosestGeoIntersection(Ray)}
+     */
+    @Test
+    void testFindClosestGeoIntersection() {
+        Vector v1 =new Vector(0,0,1);
+        Geometries geo=new Geometries();
+        for (int i=9; i>=0; --i)
+        {
+            geo.add(new Sphere(new Point(0,0,5+3*i), 1d));
+        }
+        geo.add(new Plane(new Point (0,0,20), v1));
+        Ray ray=new Ray(new Point(0,0,0), v1);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: Closest of many shapes along the ray
+        assertEquals(new Point(0,0,4), geo.findClosestGeoIntersection(ray).point, "ERROR, wrong closest point");
+
+        //TC02: Same result with a hierarchy
+        geo.buildBVH();
+        assertEquals(new Point(0,0,4), geo.findClosestGeoIntersection(ray).point, "ERROR, wrong closest point in hierarchy");
+
+        //TC03: Ray starts between the shapes
+        assertEquals(new Point(0,0,10), geo.findClosestGeoIntersection(new Ray(new Point(0,0,9.5), v1)).point, "ERROR, wrong closest point in hierarchy");
+
+        // =============== Boundary Values Tests ==================
+        //TC04: Everything is beyond the max distance
+        assertNull(geo.findClosestGeoIntersection(ray, 3), "ERROR, returned point beyond max distance");
+
+        //TC05: Nothing along the ray
+        assertNull(geo.findClosestGeoIntersection(new Ray(new Point(0,5,0), new Vector(0,1,0))), "ERROR, should not have intersected any shapes");
+    }
+}
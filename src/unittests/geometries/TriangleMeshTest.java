@@ -0,0 +1,152 @@
+package unittests.geometries;
+
+import geometries.Intersectable.GeoPoint;
+import geometries.Triangle;
+import geometries.TriangleMesh;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing TriangleMesh Class
+ */
+class TriangleMeshTest {
+
+    //a square pyramid: base on the xy plane, apex above its center
+    private final double[] vertices={0,0,0, 2,0,0, 2,2,0, 0,2,0, 1,1,2};
+    private final int[] indices={0,1,4, 1,2,4, 2,3,4, 3,0,4, 0,2,1, 0,3,2};
+
+    /**
+     * the triangles of the mesh as separate shapes
+     * @return the triangles
+     */
+    private Triangle[] triangles()
+    {
+        Triangle[] res=new Triangle[this.indices.length/3];
+        for (int tri=0; tri<res.length; ++tri)
+            res[tri]=new Triangle(this.vertex(this.indices[3*tri]), this.vertex(this.indices[3*tri+1]),
+                    this.vertex(this.indices[3*tri+2]));
+        return res;
+    }
+
+    private Point vertex(int i)
+    {
+        return new Point(this.vertices[3*i], this.vertices[3*i+1], this.vertices[3*i+2]);
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#TriangleMesh(double[], int[])}.
+     */
+    @Test
+    void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: correct mesh
+        TriangleMesh mesh=new TriangleMesh(this.vertices, this.indices);
+        assertEquals(6, mesh.getTriangleCount(), "wrong amount of triangles");
+        assertEquals(5, mesh.getVertexCount(), "wrong amount of vertices");
+
+        // TC02: index of a missing vertex
+        assertThrows(IllegalArgumentException.class, () -> new TriangleMesh(this.vertices, new int[]{0, 1, 5}),
+                "missing vertex must throw");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: no triangles
+        assertThrows(IllegalArgumentException.class, () -> new TriangleMesh(this.vertices, new int[0]),
+                "empty mesh must throw");
+
+        // TC12: incomplete triple
+        assertThrows(IllegalArgumentException.class, () -> new TriangleMesh(this.vertices, new int[]{0, 1}),
+                "incomplete triangle must throw");
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#getNormal(primitives.Point)}.
+     */
+    @Test
+    void testGetNormal() {
+        TriangleMesh mesh=new TriangleMesh(this.vertices, this.indices);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: point on the base, normal of the base plane in either direction
+        Vector n=mesh.getNormal(new Point(1.5, 0.5, 0));
+        assertEquals(1, Math.abs(n.getZ()), 1e-12, "wrong normal of the base");
+
+        // TC02: point off the mesh
+        assertThrows(IllegalArgumentException.class, () -> mesh.getNormal(new Point(5, 5, 5)),
+                "point off the mesh must throw");
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#findGeoIntersections(primitives.Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        TriangleMesh mesh=new TriangleMesh(this.vertices, this.indices);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: ray through two faces, the same hits and normals as separate triangles
+        Ray ray=new Ray(new Point(-1, 0.7, 0.5), new Vector(1, 0.1, 0.05));
+        List<GeoPoint> hits=mesh.findGeoIntersections(ray);
+        assertEquals(2, hits.size(), "wrong amount of intersections");
+        for (GeoPoint hit: hits)
+        {
+            boolean found=false;
+            for (Triangle triangle: this.triangles())
+            {
+                List<Point> points=triangle.findIntersections(ray);
+                if (points!=null && points.get(0).distance(hit.point)<1e-9)
+                {
+                    found=true;
+                    assertEquals(1, Math.abs(hit.getNormal().dotProduct(triangle.getNormal(hit.point))), 1e-9,
+                            "wrong normal");
+                }
+            }
+            assertTrue(found, "intersection is not on any triangle");
+        }
+
+        // TC02: ray missing the mesh
+        assertNull(mesh.findGeoIntersections(new Ray(new Point(-1, 5, 0.5), new Vector(1, 0, 0))),
+                "ray must miss");
+
+        // TC03: closest hit is the nearer face, with its normal
+        GeoPoint closest=mesh.findClosestGeoIntersection(ray);
+        assertEquals(ray.findClosestPoint(List.of(hits.get(0).point, hits.get(1).point)), closest.point,
+                "wrong closest intersection");
+        assertTrue(closest.normal!=null && closest.normal.dotProduct(ray.getDir())!=0, "hit must carry its normal");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: ray through edges shared by two triangles is not a hit
+        assertNull(mesh.findGeoIntersections(new Ray(new Point(-0.5, -0.5, 1), new Vector(1, 1, 0))),
+                "ray through edge must miss");
+
+        // TC12: max distance before the mesh
+        assertNull(mesh.findGeoIntersections(ray, 0.5), "hits beyond max distance must be ignored");
+
+        // TC13: a watertight mesh is hit through the edges
+        mesh.setWatertight(true);
+        GeoPoint edge=mesh.findClosestGeoIntersection(new Ray(new Point(-0.5, -0.5, 1), new Vector(1, 1, 0)));
+        assertNotNull(edge, "watertight mesh must be hit through an edge");
+        assertEquals(new Point(0.5, 0.5, 1), edge.point, "wrong intersection through the edge");
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#findTransparency(primitives.Ray, double)}.
+     */
+    @Test
+    void testFindTransparency() {
+        TriangleMesh mesh=new TriangleMesh(this.vertices, this.indices);
+        mesh.setMaterial(new Material().setKt(0.5));
+        Ray ray=new Ray(new Point(-1, 0.7, 0.5), new Vector(1, 0.1, 0.05));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: through two faces
+        assertEquals(new Double3(0.25), mesh.findTransparency(ray, Double.POSITIVE_INFINITY),
+                "wrong transparency");
+
+        // TC02: missing the mesh
+        assertEquals(Double3.ONE, mesh.findTransparency(ray, 0.5), "wrong transparency before the mesh");
+    }
+}
@@ -66,10 +66,38 @@ class TriangleTest {
 
         //TC06: Intersection is on "continuation of a side" of the triangle (0 points)
         assertNull(T1.findIntersections(new Ray(new Point(2,1,0), v1)), "Should return 0 points");
+    }
+
+    /**
+     * Test method for {@link geometries.Triangle#setWatertight(boolean)}.
+     */
+    @Test
+    void testWatertight()
+    {
+        Vector v1= new Vector(0,0,1);
+        Triangle T1 = new Triangle(new Point(1,0,1), new Point(1,1,1), new Point(0,1,1)).setWatertight(true);
+        // ============ Equivalence Partitions Tests =======
+
+        //TC01: Ray intersects triangle (within the triangle) (1 point)
+        assertEquals(List.of(new Point(0.9, 0.9, 1)), T1.findIntersections(new Ray(new Point(0.9, 0.9, 0), v1)),
+                "Returned wrong point");
 
+        //TC02: Ray does not intersect triangle (0 points)
+        assertNull(T1.findIntersections(new Ray(new Point(2,2,0), v1)), "Should return 0 points");
 
+        // =============== Boundary Values Tests ==================
+        //TC11: Intersection is on a side of triangle (1 point)
+        assertEquals(List.of(new Point(0.5, 1, 1)), T1.findIntersections(new Ray(new Point(0.5, 1, 0), v1)),
+                "Side must be hit");
 
+        //TC12: Intersection is on a corner of triangle (1 point)
+        assertEquals(List.of(new Point(1, 1, 1)), T1.findIntersections(new Ray(new Point(1, 1, 0), v1)),
+                "Corner must be hit");
 
+        //TC13: Intersection is on "continuation of a side" of the triangle (0 points)
+        assertNull(T1.findIntersections(new Ray(new Point(2,1,0), v1)), "Should return 0 points");
 
+        //TC14: Ray along the plane of the triangle (0 points)
+        assertNull(T1.findIntersections(new Ray(new Point(0.5,0.5,1), new Vector(1,0,0))), "Should return 0 points");
     }
 }
@@ -41,6 +41,26 @@ class PointTest {
         assertEquals(p4.add(v5), new Point(0,0,0), "Point is not the origin");
     }
 
+    /**
+     * Test addScaled method for {@link primitives.Point#addScaled(primitives.Vector, double)}
+     */
+    @Test
+    void testAddScaled() {
+        Point p1 = new Point(1, 2, 3);
+        Vector v2 = new Vector(0, 1, 2);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: plus scaled vector
+        assertEquals(new Point(1, 4, 7), p1.addScaled(v2, 2), "points not equal: plus scaled vector");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: scale 0 gives the point itself
+        assertSame(p1, p1.addScaled(v2, 0), "scale 0 must not move the point");
+
+        // TC12: moving to the origin doesn't throw
+        assertEquals(Point.ZERO, p1.addScaled(new Vector(1, 2, 3), -1), "Point is not the origin");
+    }
+
     /**
      * Test subtract method for {@link primitives.Point#subtract(primitives.Point)}
      */
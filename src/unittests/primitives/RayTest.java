@@ -1,5 +1,6 @@
 package unittests.primitives;
 
+import geometries.Intersectable.GeoPoint;
 import org.junit.jupiter.api.Test;
 import primitives.*;
 
@@ -32,6 +33,47 @@ class RayTest {
 
     }
 
+    /**
+     * Test the surface offset constructor {@link primitives.Ray#Ray(Point, Vector, Vector, double)}
+     */
+    @Test
+    public void testOffsetConstructor()
+    {
+        Point p = new Point(1, 1, 0);
+        Vector n = new Vector(0, 0, 1);
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: direction to the side of the normal, head moved along it, direction normalized
+        Ray ray = new Ray(p, new Vector(0, 3, 4), n, 0.1);
+        assertEquals(new Point(1, 1, 0.1), ray.getP0(), "head must move along the normal");
+        assertEquals(new Vector(0, 0.6, 0.8), ray.getDir(), "direction must be normalized");
+
+        //TC02: direction to the other side, head moved against the normal
+        assertEquals(new Point(1, 1, -0.1), new Ray(p, new Vector(0, 1, -1), n, 0.1).getP0(),
+                "head must move against the normal");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: direction along the surface, head not moved
+        assertEquals(p, new Ray(p, new Vector(1, 0, 0), n, 0.1).getP0(), "head must not move");
+    }
+
+    /**
+     * Test method for {@link primitives.Ray#trusted(Point, Vector, Vector, double)}
+     */
+    @Test
+    public void testTrusted()
+    {
+        Point p = new Point(1, 1, 0);
+        Vector unit = new Vector(0, 0.6, -0.8);
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the given direction is kept as is
+        assertSame(unit, Ray.trusted(p, unit).getDir(), "direction must not be copied");
+
+        //TC02: with an offset, the head moves to the side of the direction
+        Ray ray = Ray.trusted(p, unit, new Vector(0, 0, 1), 0.1);
+        assertEquals(new Point(1, 1, -0.1), ray.getP0(), "head must move against the normal");
+        assertSame(unit, ray.getDir(), "direction must not be copied");
+    }
+
     /**
      * Test getPoint method for {@link primitives.Ray#findClosestPoint(List)}
      */
@@ -62,5 +104,9 @@ class RayTest {
         //TC06, closest point is equivalent to ray start
         assertEquals(p0, ray.findClosestPoint(List.of(p2, p0, p3)), "ERROR, returned wrong point");
 
+        //TC07, distance carried by the intersections is used
+        GeoPoint g1=new GeoPoint(null, p1, 1), g2=new GeoPoint(null, p2, 2);
+        assertEquals(g1, ray.findClosestGeoPoint(List.of(g2, g1)), "ERROR, returned wrong point");
+
     }
 }
\ No newline at end of file
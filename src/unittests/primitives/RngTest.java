@@ -0,0 +1,100 @@
+package unittests.primitives;
+
+import org.junit.jupiter.api.Test;
+import primitives.Rng;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for primitives.Rng class
+ */
+class RngTest {
+
+    /**
+     * draw some numbers after seeding for a sample position
+     * @param seed the render seed
+     * @param x column of the sample
+     * @param y row of the sample
+     * @return the numbers drawn
+     */
+    private static double[] draw(long seed, double x, double y)
+    {
+        Rng.seed(seed, x, y);
+        double[] res=new double[16];
+        for (int i=0; i<res.length; ++i)
+            res[i]=Rng.nextDouble();
+        return res;
+    }
+
+    /**
+     * Test method for {@link primitives.Rng#seed(long, double, double)}
+     */
+    @Test
+    public void testSeed()
+    {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: same seed and position give the same numbers
+        assertArrayEquals(draw(7, 3, 4), draw(7, 3, 4), "reseeding must repeat the numbers");
+
+        //TC02: same numbers on another thread
+        double[] other=CompletableFuture.supplyAsync(() -> draw(7, 3, 4)).join();
+        assertArrayEquals(draw(7, 3, 4), other, "numbers must not depend on the thread");
+
+        //TC03: another position or seed gives other numbers
+        assertNotEquals(draw(7, 3, 4)[0], draw(7, 4, 3)[0], "positions must not share numbers");
+        assertNotEquals(draw(7, 3, 4)[0], draw(8, 3, 4)[0], "seeds must not share numbers");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: fractional positions of the same pixel differ
+        assertNotEquals(draw(0, 0.25, 0)[0], draw(0, 0.5, 0)[0], "sub pixel positions must not share numbers");
+    }
+
+    /**
+     * Test method for {@link primitives.Rng#runSeeded(long, Runnable)}
+     */
+    @Test
+    public void testRunSeeded()
+    {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the action draws the numbers of its seed
+        double[] inside=new double[1];
+        Rng.runSeeded(5, () -> inside[0]=Rng.nextDouble());
+        Rng.seed(5);
+        assertEquals(Rng.nextDouble(), inside[0], "action must draw from its seed");
+
+        //TC02: the numbers of the thread go on as if the action never ran
+        Rng.seed(42);
+        double expected=Rng.nextDouble();
+        Rng.seed(42);
+        Rng.runSeeded(5, Rng::nextDouble);
+        assertEquals(expected, Rng.nextDouble(), "generator of the thread must be restored");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: restored when the action throws
+        Rng.seed(42);
+        assertThrows(IllegalStateException.class, () -> Rng.runSeeded(5, () -> { throw new IllegalStateException(); }));
+        assertEquals(expected, Rng.nextDouble(), "generator of the thread must be restored after a failure");
+    }
+
+    /**
+     * Test method for {@link primitives.Rng#nextDouble()}
+     */
+    @Test
+    public void testNextDouble()
+    {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: numbers are in range and spread evenly
+        Rng.seed(1);
+        int[] buckets=new int[10];
+        for (int i=0; i<100000; ++i)
+        {
+            double d=Rng.nextDouble();
+            assertTrue(d>=0&&d<1, "number out of range");
+            ++buckets[(int)(d*10)];
+        }
+        for (int b : buckets)
+            assertEquals(10000, b, 500, "numbers are not spread evenly");
+    }
+}
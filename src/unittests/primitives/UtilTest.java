@@ -0,0 +1,94 @@
+package unittests.primitives;
+
+import org.junit.jupiter.api.Test;
+import primitives.Util;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for primitives.Util class
+ */
+class UtilTest {
+
+    /**
+     * the former test of Util.isZero: the binary exponent of the number is below -25
+     * @param number the number to check
+     * @return true if the number is zero or almost zero
+     */
+    private static boolean exponentIsZero(double number)
+    {
+        return (int)((Double.doubleToRawLongBits(number) >> 52) & 0x7FFL) - 1023 < -25;
+    }
+
+    /**
+     * Test method for {@link primitives.Util#isZero(double)} and {@link primitives.Util#alignZero(double)}.
+     */
+    @Test
+    void testIsZero() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: same answers as the exponent test over numbers of any magnitude
+        SplittableRandom random=new SplittableRandom(25);
+        for (int i=0; i<10000; ++i)
+        {
+            double number=(random.nextBoolean() ? 1 : -1)*random.nextDouble()*Math.scalb(1.0, random.nextInt(-60, 10));
+            assertEquals(exponentIsZero(number), Util.isZero(number), "wrong answer for " + number);
+            assertEquals(exponentIsZero(number) ? 0.0 : number, Util.alignZero(number), "wrong alignment of " + number);
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the accuracy itself and its neighbours, subnormals, infinities and NaN
+        double[] numbers={0.0, -0.0, Util.EPSILON, -Util.EPSILON, Math.nextDown(Util.EPSILON), Math.nextUp(Util.EPSILON),
+                -Math.nextDown(Util.EPSILON), Double.MIN_VALUE, Double.MIN_NORMAL, Double.POSITIVE_INFINITY,
+                Double.NEGATIVE_INFINITY, Double.NaN};
+        for (double number: numbers)
+            assertEquals(exponentIsZero(number), Util.isZero(number), "wrong answer for " + number);
+    }
+
+    /**
+     * Test method for {@link primitives.Util#isPositive(double)} and {@link primitives.Util#isNegative(double)}.
+     */
+    @Test
+    void testSign() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: clearly positive and negative numbers
+        assertTrue(Util.isPositive(0.5), "0.5 is positive");
+        assertFalse(Util.isNegative(0.5), "0.5 is not negative");
+        assertTrue(Util.isNegative(-0.5), "-0.5 is negative");
+        assertFalse(Util.isPositive(-0.5), "-0.5 is not positive");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: same as the sign of the aligned number, around the accuracy
+        double[] numbers={0.0, Util.EPSILON, -Util.EPSILON, Math.nextDown(Util.EPSILON), -Math.nextDown(Util.EPSILON)};
+        for (double number: numbers)
+        {
+            assertEquals(Util.alignZero(number)>0, Util.isPositive(number), "wrong sign of " + number);
+            assertEquals(Util.alignZero(number)<0, Util.isNegative(number), "wrong sign of " + number);
+        }
+
+        // TC12: NaN has no sign
+        assertFalse(Util.isPositive(Double.NaN), "NaN is not positive");
+        assertFalse(Util.isNegative(Double.NaN), "NaN is not negative");
+    }
+
+    /**
+     * Test method for {@link primitives.Util#isZero(double, double)} and {@link primitives.Util#isClose(double, double, double)}.
+     */
+    @Test
+    void testTolerances() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: absolute tolerance of the caller
+        assertTrue(Util.isZero(1e-4, 1e-3), "1e-4 is zero by 1e-3");
+        assertFalse(Util.isZero(1e-2, 1e-3), "1e-2 is not zero by 1e-3");
+
+        // TC02: relative tolerance follows the size of the numbers
+        assertTrue(Util.isClose(1e9, 1e9+1, 1e-8), "numbers must be close relative to their size");
+        assertFalse(Util.isClose(1, 1.001, 1e-8), "numbers must not be close");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: zero is only close to itself
+        assertTrue(Util.isClose(0, 0, 1e-8), "zero is close to itself");
+        assertFalse(Util.isClose(0, 1e-300, 1e-8), "zero is not relatively close to anything else");
+    }
+}
@@ -0,0 +1,59 @@
+package unittests.primitives;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for primitives.Vec3 class
+ */
+class Vec3Test {
+
+    /**
+     * Test method for {@link primitives.Vec3#unit(double, double, double)}
+     */
+    @Test
+    void testUnit() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: same vector as normalizing a Vector
+        assertEquals(new Vector(1, 2, 3).normalize(), Vec3.unit(1, 2, 3), "wrong unit vector");
+        assertEquals(5, Vec3.length(3, 0, 4), 0.00001, "wrong length");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a unit vector stays as it is
+        assertEquals(new Vector(0, -1, 0), Vec3.unit(0, -1, 0), "unit vector must not change");
+    }
+
+    /**
+     * Test method for {@link primitives.Vec3#setDifference(primitives.Point, primitives.Point)}
+     */
+    @Test
+    void testSetDifference() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: vector from one point to the other, filled in place
+        Vec3 v = new Vec3();
+        assertSame(v, v.setDifference(new Point(1, 2, 3), new Point(0, 4, 1)), "must fill the triad itself");
+        assertEquals(new Vector(1, -2, 2), v.toVector(), "wrong difference");
+        assertEquals(3, v.length(), 0.00001, "wrong length");
+        assertEquals(-1, v.dot(new Vector(1, 1, 0)), 0.00001, "wrong dot product");
+    }
+
+    /**
+     * Test method for {@link primitives.Vec3#addScaled(primitives.Vec3, primitives.Double3, double)}
+     */
+    @Test
+    void testAddScaled() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: same color as adding scaled colors
+        Color c = new Color(10, 20, 30), light = new Color(100, 50, 200);
+        Double3 k = new Double3(0.5, 0.25, 0.1);
+        Vec3 v = new Vec3().set(c).addScaled(new Vec3().set(light), k, 2);
+        assertEquals(c.add(light.scale(k.scale(2))), v.toColor(), "wrong sum");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a negative color can't be made
+        assertThrows(IllegalArgumentException.class, () -> new Vec3().set(-1, 0, 0).toColor(),
+                "negative color must throw");
+    }
+}
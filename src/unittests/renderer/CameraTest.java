@@ -6,6 +6,13 @@ import org.junit.jupiter.api.Test;
 
 import primitives.*;
 import renderer.Camera;
+import renderer.ImageWriter;
+import renderer.RayTracerBase;
+import renderer.RenderProgress;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Testing Camera Class
@@ -57,4 +64,169 @@ class CameraTest {
 
 }
 
+
+	/**
+	 * Test method for
+	 * {@link renderer.Camera#constructRay(int, int, double, double)}.
+	 */
+	@Test
+	void testConstructRayThroughPoint() {
+		Camera camera = new Camera(ZERO_POINT, new Vector(0, 0, -1), new Vector(0, -1, 0)).setVPDistance(10).setVPSize(8, 8);
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: 4X4 corner of pixel (0,0)
+		assertEquals(new Ray(ZERO_POINT, new Vector(4, -4, -10)), camera.constructRay(4, 4, -0.5, -0.5), "Bad ray");
+
+		// =============== Boundary Values Tests ==================
+		// TC11: whole coordinates are pixel centers, 4X4 center of pixel (1,2)
+		assertEquals(new Ray(ZERO_POINT, new Vector(1, 1, -10)), camera.constructRay(4, 4, 1.0, 2.0), "Bad ray");
+	}
+
+	/**
+	 * Test method for
+	 * {@link renderer.Camera#setAdaptiveSupersampling(int, double)}.
+	 */
+	@Test
+	void testAdaptiveSupersampling() {
+		AtomicInteger rays = new AtomicInteger();
+		Camera camera = new Camera(ZERO_POINT, new Vector(0, 0, -1), new Vector(0, -1, 0))
+				.setVPDistance(10).setVPSize(8, 8).setProgressListener(RenderProgress.NONE)
+				.setImageWriter(new ImageWriter("supersampling", 8, 8));
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: uniform image - every pixel is sampled at its center, corners are shared
+		camera.setRayTracer(new RayTracerBase(null) {
+			@Override
+			public Color traceRay(Ray ray) {
+				rays.incrementAndGet();
+				return Color.BLACK;
+			}
+		}).setAdaptiveSupersampling(3, 1).renderImage();
+		assertEquals(9 * 9 + 8 * 8, rays.get(), "uniform pixels must not be divided");
+
+		// TC02: sharp edge - only pixels on the edge are divided
+		rays.set(0);
+		camera.setRayTracer(new RayTracerBase(null) {
+			@Override
+			public Color traceRay(Ray ray) {
+				rays.incrementAndGet();
+				return ray.getDir().getX() > 0.03 ? Color.WHITE : Color.BLACK;
+			}
+		}).renderImage();
+		assertTrue(rays.get() > 9 * 9 + 8 * 8, "pixels on the edge must be divided");
+		assertTrue(rays.get() < 9 * 9 + 8 * 8 + 8 * 8 * (4 + 4 * 5), "pixels off the edge must not be divided");
+
+		// TC03: every pixel divided once - midpoints of borders are shared by the pixels on both sides
+		rays.set(0);
+		camera.setRayTracer(new RayTracerBase(null) {
+			@Override
+			public Color traceRay(Ray ray) {
+				rays.incrementAndGet();
+				return new Color(10000 * Math.abs(ray.getDir().getX()), 10000 * Math.abs(ray.getDir().getY()), 0);
+			}
+		}).setAdaptiveSupersampling(2, 1).renderImage();
+		assertEquals(9 * 9 + 8 * 8 + 2 * 9 * 8 + 8 * 8 * 4, rays.get(), "border samples must be traced once");
+
+		// =============== Boundary Values Tests ==================
+		// TC11: depth 1 never divides
+		rays.set(0);
+		camera.setAdaptiveSupersampling(1, 1).renderImage();
+		assertEquals(9 * 9 + 8 * 8, rays.get(), "depth 1 must not divide");
+	}
+
+	/**
+	 * ray tracer that colors every ray by its direction
+	 */
+	private static final RayTracerBase DIRECTION_TRACER = new RayTracerBase(null) {
+		@Override
+		public Color traceRay(Ray ray) {
+			Vector dir = ray.getDir();
+			return new Color(1000 * Math.abs(dir.getX()), 1000 * Math.abs(dir.getY()), 100);
+		}
+	};
+
+	/**
+	 * render a 16X16 image of the direction tracer
+	 * @param camera the camera, set up with the threads to render on
+	 * @return colors of the pixels, by row and column
+	 */
+	private static Color[][] render(Camera camera) {
+		Color[][] pixels = new Color[16][16];
+		camera.setVPDistance(10).setVPSize(8, 8).setTileSize(4).setProgressListener(RenderProgress.NONE)
+				.setRayTracer(DIRECTION_TRACER).setImageWriter(new ImageWriter("threads", 16, 16) {
+					@Override
+					public void writePixel(int xIndex, int yIndex, Color color) {
+						pixels[yIndex][xIndex] = color;
+					}
+				}).renderImage();
+		return pixels;
+	}
+
+	/**
+	 * new camera for the threading tests
+	 * @return the camera
+	 */
+	private static Camera camera() {
+		return new Camera(ZERO_POINT, new Vector(0, 0, -1), new Vector(0, -1, 0));
+	}
+
+	/**
+	 * Test method for
+	 * {@link renderer.Camera#setThreadCount(int)} and {@link renderer.Camera#setVirtualThreads(boolean)}.
+	 */
+	@Test
+	void testThreads() {
+		Color[][] serial = render(camera());
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: a pool of the camera's own gives the serial image
+		assertArrayEquals(serial, render(camera().setThreadCount(3)), "wrong image on 3 threads");
+
+		// TC02: virtual threads (or the camera's own pool where there are none) give the serial image
+		assertArrayEquals(serial, render(camera().setVirtualThreads(true)), "wrong image on virtual threads");
+
+		// =============== Boundary Values Tests ==================
+		// TC11: one thread renders on the calling thread
+		assertArrayEquals(serial, render(camera().setThreadCount(1)), "wrong image on 1 thread");
+
+		// TC12: no threads
+		assertThrows(IllegalArgumentException.class, () -> camera().setThreadCount(0), "0 threads must throw");
+	}
+
+	/**
+	 * Test method for
+	 * {@link renderer.Camera#setExecutor(java.util.concurrent.ExecutorService)}.
+	 */
+	@Test
+	void testExecutor() {
+		Color[][] serial = render(camera());
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			// ============ Equivalence Partitions Tests ==============
+			// TC01: the executor of the caller gives the serial image and is left running
+			assertArrayEquals(serial, render(camera().setExecutor(executor).setThreadCount(4)),
+					"wrong image on the executor");
+			assertFalse(executor.isShutdown(), "executor of the caller must not be shut down");
+
+			// TC02: a failure of a worker reaches the caller of renderImage, and the executor is left running
+			Camera failing = camera().setExecutor(executor).setThreadCount(4).setVPDistance(10).setVPSize(8, 8)
+					.setTileSize(4).setProgressListener(RenderProgress.NONE)
+					.setImageWriter(new ImageWriter("threads", 16, 16)).setRayTracer(new RayTracerBase(null) {
+						@Override
+						public Color traceRay(Ray ray) {
+							if (ray.getDir().getX() > 0.2)
+								throw new IllegalStateException("tracer failed");
+							return Color.BLACK;
+						}
+					});
+			IllegalStateException e = assertThrows(IllegalStateException.class, failing::renderImage,
+					"failure of a worker must be rethrown");
+			assertEquals("tracer failed", e.getMessage(), "the failure of the worker must be rethrown as is");
+			assertFalse(executor.isShutdown(), "executor of the caller must not be shut down after a failure");
+			assertArrayEquals(serial, render(camera().setExecutor(executor)), "executor must still render");
+		} finally {
+			executor.shutdown();
+		}
+	}
+
 }
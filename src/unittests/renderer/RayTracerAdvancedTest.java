@@ -0,0 +1,83 @@
+package unittests.renderer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import geometries.Intersectable.GeoPoint;
+import geometries.Plane;
+import primitives.*;
+import renderer.RayTracerAdvanced;
+import scene.Scene;
+
+/**
+ * Testing RayTracerAdvanced Class
+ */
+class RayTracerAdvancedTest {
+
+    /**
+     * ray tracer that counts the rays it intersects with the scene
+     */
+    private static class CountingTracer extends RayTracerAdvanced {
+        int rays=0;
+
+        /**
+         * @param scene the scene to draw
+         */
+        CountingTracer(Scene scene)
+        {
+            super(scene);
+        }
+
+        @Override
+        protected GeoPoint findClosestIntersection(Ray ray)
+        {
+            ++this.rays;
+            return super.findClosestIntersection(ray);
+        }
+    }
+
+    /**
+     * trace a ray onto a glossy mirror, whose beam leaves the scene and sees the black background only
+     * @param tracer the tracer
+     * @return amount of rays intersected: the camera ray and the rays of the beam
+     */
+    private static int traceMirror(CountingTracer tracer)
+    {
+        Rng.seed(1);
+        tracer.rays=0;
+        tracer.traceRay(new Ray(new Point(0, 0, 10), new Vector(0, 0, -1)));
+        return tracer.rays;
+    }
+
+    /**
+     * Test method for {@link renderer.RayTracerAdvanced#setAdaptiveSampling(int, double)}.
+     */
+    @Test
+    void testAdaptiveSampling() {
+        Scene scene=new Scene("Test scene");
+        scene.geometries.add(new Plane(new Point(0, 0, 0), new Vector(0, 0, 1))
+                .setMaterial(new Material().setKr(1).setGlossiness(0.1)));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a uniform beam stops after the first batch
+        CountingTracer tracer=new CountingTracer(scene);
+        tracer.setSampleSize(33).setAdaptiveSampling(4, 1);
+        assertEquals(1+4, traceMirror(tracer), "uniform beam must stop after the first batch");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: threshold 0 traces the whole beam, which has exactly the sample size rays
+        tracer.setAdaptiveSampling(4, 0);
+        assertEquals(1+33, traceMirror(tracer), "threshold 0 must trace the whole beam");
+
+        // TC12: without adaptive sampling the whole beam is traced as well
+        tracer.setAdaptiveSampling(0, 0);
+        assertEquals(1+33, traceMirror(tracer), "whole beam must be traced");
+
+        // TC13: bad settings
+        assertThrows(IllegalArgumentException.class, () -> tracer.setAdaptiveSampling(-1, 1),
+                "negative samples must throw");
+        assertThrows(IllegalArgumentException.class, () -> tracer.setAdaptiveSampling(4, -1),
+                "negative threshold must throw");
+    }
+}
@@ -0,0 +1,101 @@
+package unittests.renderer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import geometries.Intersectable.GeoPoint;
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.AmbientLight;
+import lighting.PointLight;
+import primitives.*;
+import renderer.RayTracerAdvanced;
+import renderer.RayTracerIterative;
+import scene.Scene;
+
+/**
+ * Testing RayTracerIterative Class
+ */
+class RayTracerIterativeTest {
+
+    private static final Point CAMERA=new Point(0, 0, 1000);
+
+    /**
+     * a transparent sphere around an opaque one, in front of a glossy mirror. Only the mirror spreads beams,
+     * and no ray comes back to it, so both tracers draw the same random numbers for the same camera ray
+     * @return the scene
+     */
+    private static Scene scene()
+    {
+        Scene scene=new Scene("Test scene").setAmbientLight(new AmbientLight(new Color(255, 255, 255), 0.1));
+        scene.geometries.add(
+                new Sphere(new Point(0, 0, -50), 50d).setEmission(new Color(0, 50, 100))
+                        .setMaterial(new Material().setKd(0.25).setKs(0.25).setShininess(20).setKt(0.5)),
+                new Sphere(new Point(0, 0, -50), 25d).setEmission(new Color(100, 50, 20))
+                        .setMaterial(new Material().setKd(0.25).setKs(0.25).setShininess(20)),
+                new Triangle(new Point(-200, -200, -150), new Point(200, -200, -150), new Point(0, 200, -150))
+                        .setEmission(new Color(20, 20, 20))
+                        .setMaterial(new Material().setKd(0.2).setKr(0.6).setGlossiness(0.05)));
+        scene.lights.add(new PointLight(new Color(700, 400, 400), new Point(60, 50, 100)).setKl(0.0004).setKq(0.0000006));
+        return scene;
+    }
+
+    /**
+     * trace a grid of camera rays, reseeding the random numbers for every ray
+     * @param tracer the tracer
+     * @return colors of the rays
+     */
+    private static Color[] trace(RayTracerAdvanced tracer)
+    {
+        Color[] colors=new Color[49];
+        for (int i=0; i<7; ++i)
+            for (int j=0; j<7; ++j)
+            {
+                Rng.seed(7, j, i);
+                Ray ray=new Ray(CAMERA, new Point(-60+20*j, -60+20*i, 0).subtract(CAMERA));
+                colors[7*i+j]=tracer.traceRay(ray);
+            }
+        return colors;
+    }
+
+    /**
+     * Test method for {@link renderer.RayTracerIterative#traceRay(primitives.Ray)}.
+     */
+    @Test
+    void testTraceRay() {
+        Scene scene=scene();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: same colors as the recursive tracer, with beams of several sizes
+        for (int size: new int[]{9, 33})
+            assertArrayEquals(trace(new RayTracerAdvanced(scene).setSampleSize(size)),
+                    trace(new RayTracerIterative(scene).setSampleSize(size)),
+                    "wrong colors with beams of " + size + " rays");
+
+        // TC02: a trace that threw leaves nothing behind for the next one
+        boolean[] fail={true};
+        RayTracerIterative failing=new RayTracerIterative(scene) {
+            @Override
+            protected Color calcLocalEffects(GeoPoint gp, Ray ray, Double3 k) {
+                // a ray of the beam back from the mirror, with the rest of the beam still pending
+                if (fail[0] && ray.getDir().getZ() > 0)
+                    throw new IllegalStateException();
+                return super.calcLocalEffects(gp, ray, k);
+            }
+        };
+        failing.setSampleSize(9);
+        Ray ray=new Ray(CAMERA, new Point(-20, -20, 0).subtract(CAMERA));
+        assertThrows(IllegalStateException.class, () -> failing.traceRay(ray), "failure must reach the caller");
+        fail[0]=false;
+        Rng.seed(7);
+        Color expected=new RayTracerAdvanced(scene).setSampleSize(9).traceRay(ray);
+        Rng.seed(7);
+        assertEquals(expected, failing.traceRay(ray), "rays of the failed trace must not be traced again");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: without beams
+        assertArrayEquals(trace(new RayTracerAdvanced(scene).setSampleSize(1)),
+                trace(new RayTracerIterative(scene).setSampleSize(1)), "wrong colors without beams");
+    }
+}
@@ -0,0 +1,68 @@
+package unittests.renderer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import geometries.Sphere;
+import primitives.Point;
+import primitives.Vector;
+import renderer.Camera;
+import renderer.ImageWriter;
+import renderer.RayTracerBasic;
+import renderer.RenderProgress;
+import scene.Scene;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+/**
+ * Testing RenderProgress Class
+ */
+class RenderProgressTest {
+
+    /**
+     * Test method for {@link renderer.RenderProgress#add(long)}.
+     */
+    @Test
+    void testAdd() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: pixels added from many threads are all counted
+        RenderProgress progress=new RenderProgress(10000);
+        IntStream.range(0, 1000).parallel().forEach(i -> progress.add(10));
+        assertEquals(10000, progress.getDone(), "lost pixels");
+        assertTrue(progress.isDone(), "render must be done");
+
+        // TC02: part of the render done
+        RenderProgress part=new RenderProgress(400);
+        part.add(100);
+        assertEquals(0.25, part.getFraction(), 1e-12, "wrong fraction");
+        assertFalse(part.isDone(), "render must not be done");
+    }
+
+    /**
+     * Test method for {@link renderer.Camera#setProgressListener(RenderProgress.Listener)}.
+     */
+    @Test
+    void testCameraProgress() {
+        // TC01: the listener sees the whole render done before renderImage returns, for every threading mode
+        Scene scene=new Scene("progress");
+        scene.geometries.add(new Sphere(new Point(0, 0, -100), 50));
+
+        for (int threads : new int[] { 1, 3 })
+        {
+            AtomicReference<RenderProgress> last=new AtomicReference<>();
+            Camera camera=new Camera(Point.ZERO, new Vector(0, 0, -1), new Vector(0, 1, 0))
+                    .setVPSize(200, 200).setVPDistance(100)
+                    .setRayTracer(new RayTracerBasic(scene))
+                    .setImageWriter(new ImageWriter("progress", 50, 40))
+                    .setThreadCount(threads)
+                    .setProgressListener(last::set)
+                    .renderImage();
+
+            assertSame(camera.getProgress(), last.get(), "listener got another render's progress");
+            assertEquals(50*40, last.get().getTotal(), "wrong amount of pixels");
+            assertTrue(last.get().isDone(), "final report must show the render done");
+        }
+    }
+}
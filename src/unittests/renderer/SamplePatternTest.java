@@ -0,0 +1,65 @@
+package unittests.renderer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import primitives.Rng;
+import renderer.SamplePattern;
+
+/**
+ * Testing SamplePattern Class
+ */
+class SamplePatternTest {
+
+    /**
+     * Test method for {@link renderer.SamplePattern#generate(double[], int)}.
+     */
+    @Test
+    void testGenerate() {
+        Rng.seed(3);
+        double[] samples=new double[2*100];
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: every pattern stays in the unit square and is centered
+        for (SamplePattern pattern : SamplePattern.values())
+        {
+            pattern.generate(samples, 64);
+            double sumX=0, sumY=0;
+            for (int s=0; s<64; ++s)
+            {
+                assertTrue(samples[2*s]>=0&&samples[2*s]<1&&samples[2*s+1]>=0&&samples[2*s+1]<1,
+                        "sample out of the square for " + pattern);
+                sumX+=samples[2*s];
+                sumY+=samples[2*s+1];
+            }
+            assertEquals(0.5, sumX/64, 0.06, "samples not spread for " + pattern);
+            assertEquals(0.5, sumY/64, 0.06, "samples not spread for " + pattern);
+        }
+
+        // TC02: a square amount of stratified or Sobol samples puts one sample in every cell
+        for (SamplePattern pattern : new SamplePattern[] { SamplePattern.STRATIFIED, SamplePattern.SOBOL })
+        {
+            pattern.generate(samples, 16);
+            boolean[] cells=new boolean[16];
+            for (int s=0; s<16; ++s)
+                cells[(int)(samples[2*s+1]*4)*4+(int)(samples[2*s]*4)]=true;
+            for (boolean cell : cells)
+                assertTrue(cell, "empty cell for " + pattern);
+        }
+
+        // TC03: the first Sobol samples already cover all quadrants
+        SamplePattern.SOBOL.generate(samples, 4);
+        boolean[] quadrants=new boolean[4];
+        for (int s=0; s<4; ++s)
+            quadrants[(int)(samples[2*s+1]*2)*2+(int)(samples[2*s]*2)]=true;
+        for (boolean quadrant : quadrants)
+            assertTrue(quadrant, "empty quadrant");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: stratified with an amount that does not fill a square grid keeps every sample in the square
+        SamplePattern.STRATIFIED.generate(samples, 7);
+        for (int s=0; s<7; ++s)
+            assertTrue(samples[2*s]<1&&samples[2*s+1]<1, "sample out of the square");
+    }
+}
@@ -1567,6 +1567,8 @@ public class TeapotTest {
         );
         scene.lights.add(new PointLight(new Color(500, 500, 500), new Point(100, 0, -100)).setKq(0.000001));
 
+        scene.geometries.buildBVH();
+
         camera.setRayTracer(new RayTracerBasic(scene)).renderImage().printGrid(50, new Color(YELLOW));
         camera.writeToImage();
     }
@@ -0,0 +1,83 @@
+package unittests.renderer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import primitives.Double3;
+import renderer.RayTracerBasic;
+import renderer.TerminationPolicy;
+import renderer.TracerPreset;
+
+/**
+ * Testing TerminationPolicy Class
+ */
+class TerminationPolicyTest {
+
+    /**
+     * Test method for {@link renderer.TerminationPolicy#survival(int, Double3)}.
+     */
+    @Test
+    void testSurvival() {
+        TerminationPolicy policy=new TerminationPolicy().setMaxDepth(5).setMinWeight(0.01);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: without roulette, strong enough rays within the depth are always followed
+        assertEquals(1, policy.survival(2, new Double3(0.5)), "ray must be followed");
+
+        // TC02: too weak rays are dropped
+        assertEquals(0, policy.survival(1, new Double3(0.001)), "weak ray must be dropped");
+
+        // TC03: with roulette, the chance follows the strongest component of the attenuation
+        policy.setRouletteDepth(3);
+        assertEquals(1, policy.survival(2, new Double3(0.2, 0.3, 0.1)), "no roulette before its depth");
+        assertEquals(0.3, policy.survival(3, new Double3(0.2, 0.3, 0.1)), 1e-12, "wrong chance");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: rays at the maximal depth are dropped
+        assertEquals(0, policy.survival(5, Double3.ONE), "ray beyond the depth must be dropped");
+
+        // TC12: the chance never exceeds 1
+        assertEquals(1, policy.survival(3, new Double3(2)), "chance must not exceed 1");
+
+        // TC13: bad settings
+        assertThrows(IllegalArgumentException.class, () -> policy.setMaxDepth(0), "depth 0 must throw");
+        assertThrows(IllegalArgumentException.class, () -> policy.setMinWeight(-1), "negative weight must throw");
+    }
+
+    /**
+     * Test method for {@link renderer.TracerPreset#createTerminationPolicy()}.
+     */
+    @Test
+    void testPreset() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: final keeps the defaults, preview is shallower and coarser
+        TerminationPolicy defaults=new TerminationPolicy();
+        TerminationPolicy fin=TracerPreset.FINAL.createTerminationPolicy();
+        TerminationPolicy preview=TracerPreset.PREVIEW.createTerminationPolicy();
+        assertEquals(defaults.getMaxDepth(), fin.getMaxDepth(), "final must keep the default depth");
+        assertEquals(defaults.getMinWeight(), fin.getMinWeight(), "final must keep the default weight");
+        assertTrue(preview.getMaxDepth()<fin.getMaxDepth(), "preview must be shallower");
+        assertTrue(preview.getMinWeight()>fin.getMinWeight(), "preview must cut off sooner");
+
+        // TC02: every call gives a policy of its own
+        assertNotSame(fin, TracerPreset.FINAL.createTerminationPolicy(), "presets must not share policies");
+    }
+
+    /**
+     * Test method for {@link renderer.RayTracerBasic#setPreset(TracerPreset)}.
+     */
+    @Test
+    void testSetPreset() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the preset replaces the depth and cutoff, and keeps the roulette and the shadow offset set before
+        RayTracerBasic tracer=new RayTracerBasic(null).setDelta(2.5);
+        tracer.getTerminationPolicy().setMaxDepth(8).setRouletteDepth(3);
+        tracer.setPreset(TracerPreset.PREVIEW);
+        TerminationPolicy preview=TracerPreset.PREVIEW.createTerminationPolicy();
+        assertEquals(preview.getMaxDepth(), tracer.getTerminationPolicy().getMaxDepth(), "wrong depth");
+        assertEquals(preview.getMinWeight(), tracer.getTerminationPolicy().getMinWeight(), "wrong weight");
+        assertEquals(3, tracer.getTerminationPolicy().getRouletteDepth(), "roulette must be kept");
+        assertEquals(2.5, tracer.getDelta(), "shadow offset must be kept");
+    }
+}
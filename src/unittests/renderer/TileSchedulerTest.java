@@ -0,0 +1,78 @@
+package unittests.renderer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import renderer.TileScheduler;
+
+/**
+ * Testing TileScheduler Class
+ */
+class TileSchedulerTest {
+
+    /**
+     * count how many times every pixel is covered by the tiles handed out by a scheduler
+     * @param nX amount of pixel columns
+     * @param nY amount of pixel rows
+     * @param scheduler the scheduler
+     * @return coverage count per pixel
+     */
+    private int[][] coverage(int nX, int nY, TileScheduler scheduler)
+    {
+        int[][] res=new int[nY][nX];
+        for (int tile=scheduler.nextTile(); tile!=-1; tile=scheduler.nextTile())
+            for (int i=scheduler.getY0(tile); i<scheduler.getY1(tile); ++i)
+                for (int j=scheduler.getX0(tile); j<scheduler.getX1(tile); ++j)
+                    ++res[i][j];
+        return res;
+    }
+
+    /**
+     * Test method for {@link renderer.TileScheduler#nextTile()}.
+     */
+    @Test
+    void testNextTile() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: every order covers every pixel exactly once, with partial tiles at the edges
+        for (TileScheduler.Order order : TileScheduler.Order.values())
+        {
+            TileScheduler scheduler=new TileScheduler(50, 37, 8, order);
+            assertEquals(7*5, scheduler.getTileCount(), "wrong amount of tiles for " + order);
+            for (int[] row : coverage(50, 37, scheduler))
+                for (int c : row)
+                    assertEquals(1, c, "pixel not covered exactly once for " + order);
+        }
+
+        // TC02: spiral starts at the center tile
+        TileScheduler spiral=new TileScheduler(50, 50, 10, TileScheduler.Order.SPIRAL);
+        int first=spiral.nextTile();
+        assertEquals(20, spiral.getX0(first), "spiral does not start at the center");
+        assertEquals(20, spiral.getY0(first), "spiral does not start at the center");
+
+        // TC03: consecutive Hilbert tiles are neighbours
+        TileScheduler hilbert=new TileScheduler(64, 64, 8, TileScheduler.Order.HILBERT);
+        int prev=hilbert.nextTile();
+        for (int tile=hilbert.nextTile(); tile!=-1; tile=hilbert.nextTile())
+        {
+            int d=Math.abs(hilbert.getX0(tile)-hilbert.getX0(prev))+Math.abs(hilbert.getY0(tile)-hilbert.getY0(prev));
+            assertEquals(8, d, "consecutive Hilbert tiles are not neighbours");
+            prev=tile;
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: tile larger than the image
+        TileScheduler single=new TileScheduler(5, 3, 16, TileScheduler.Order.HILBERT);
+        assertEquals(1, single.getTileCount(), "whole image must be one tile");
+        int tile=single.nextTile();
+        assertEquals(5, single.getX1(tile), "tile must be cut at the image edge");
+        assertEquals(3, single.getY1(tile), "tile must be cut at the image edge");
+        assertEquals(-1, single.nextTile(), "no tiles must be left");
+
+        // TC12: bad sizes
+        assertThrows(IllegalArgumentException.class, () -> new TileScheduler(10, 10, 0, TileScheduler.Order.ROW_MAJOR),
+                "tile size 0 must throw");
+        assertThrows(IllegalArgumentException.class, () -> new TileScheduler(0, 10, 4, TileScheduler.Order.ROW_MAJOR),
+                "empty image must throw");
+    }
+}